@@ -15,4 +15,6 @@ INSERT INTO users (first_name, last_name, email, created_at, updated_at)
 VALUES
     ('Jean', 'Dupont', 'jean.dupont@esipen.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
     ('Pierre', 'Henry', 'pierre.henry@esipen.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-    ('Marie', 'Lefebvre', 'marie.lefebvre@esipen.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+    ('Marie', 'Lefebvre', 'marie.lefebvre@esipen.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    -- Compte de service de ms-orders (réservation et remise en stock en arrière-plan)
+    ('Service', 'Commandes', 'ms-orders@esipen.com', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
@@ -0,0 +1,31 @@
+package com.orders.application.dto;
+
+import com.orders.domain.enums.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Changement de statut groupé : soit une liste d'IDs, soit un filtre (statut courant et/ou période [from, to)).
+ * Avec une liste d'IDs, {@code currentStatus} sert de garde : seules les commandes encore dans ce statut sont modifiées.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequestDTO {
+
+    @NotNull(message = "Le statut cible ne peut pas être vide")
+    private OrderStatus status;
+
+    private List<Long> orderIds;
+
+    private OrderStatus currentStatus;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,21 @@
+package com.orders.application.dto;
+
+import com.orders.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponseDTO {
+
+    private OrderStatus status;
+    private int updatedCount;
+    private List<Long> updatedIds;
+    private List<SkippedOrderDTO> skipped;
+}
@@ -0,0 +1,21 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResponseDTO {
+
+    private int createdCount;
+    private int rejectedCount;
+    @Builder.Default
+    private List<OrderBatchResultDTO> results = new ArrayList<>();
+}
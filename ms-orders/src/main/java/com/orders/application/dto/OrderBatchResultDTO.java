@@ -0,0 +1,28 @@
+package com.orders.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'une commande d'un lot : {@code index} est sa position dans la requête,
+ * {@code order} est renseigné si elle a été créée, {@code errors} sinon.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class OrderBatchResultDTO {
+
+    private int index;
+    private boolean created;
+    private OrderResponseDTO order;
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+}
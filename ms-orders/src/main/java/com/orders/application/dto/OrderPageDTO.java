@@ -0,0 +1,24 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de résultats d'une recherche de commandes ; {@code page} commence à 0.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDTO {
+
+    private List<OrderResponseDTO> orders;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -2,6 +2,7 @@ package com.orders.application.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,6 +25,7 @@ public class OrderResponseDTO {
     private OrderStatus status;
     private BigDecimal totalAmount;
     private String shippingAddress;
+    private StockReservationStatus stockStatus;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
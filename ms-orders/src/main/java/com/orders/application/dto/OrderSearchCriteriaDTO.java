@@ -0,0 +1,29 @@
+package com.orders.application.dto;
+
+import com.orders.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Critères de GET /api/v1/orders/search ; les critères absents ne filtrent pas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchCriteriaDTO {
+
+    private Long userId;
+    private List<OrderStatus> statuses;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Long productId;
+}
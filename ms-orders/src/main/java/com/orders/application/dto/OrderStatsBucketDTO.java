@@ -0,0 +1,28 @@
+package com.orders.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.orders.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat d'un statut ou d'un jour : seule la clé correspondante (status ou day) est renseignée.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderStatsBucketDTO {
+
+    private OrderStatus status;
+    private LocalDate day;
+    private long orderCount;
+    private BigDecimal totalAmount;
+    private BigDecimal averageBasket;
+}
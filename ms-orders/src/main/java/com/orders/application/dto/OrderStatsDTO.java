@@ -0,0 +1,28 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatsDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private long orderCount;
+    private BigDecimal totalAmount;
+    private BigDecimal averageBasket;
+    @Builder.Default
+    private List<OrderStatsBucketDTO> byStatus = new ArrayList<>();
+    @Builder.Default
+    private List<OrderStatsBucketDTO> byDay = new ArrayList<>();
+}
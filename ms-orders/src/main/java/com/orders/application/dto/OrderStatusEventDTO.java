@@ -0,0 +1,22 @@
+package com.orders.application.dto;
+
+import com.orders.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDTO {
+
+    private Long eventId;
+    private Long orderId;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private LocalDateTime occurredAt;
+}
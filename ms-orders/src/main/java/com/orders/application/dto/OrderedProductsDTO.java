@@ -0,0 +1,20 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderedProductsDTO {
+    @Builder.Default
+    private List<OrderedProductDTO> products = new ArrayList<>();
+    @Builder.Default
+    private List<Long> missingIds = new ArrayList<>();
+}
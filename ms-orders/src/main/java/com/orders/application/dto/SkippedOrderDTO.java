@@ -0,0 +1,16 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkippedOrderDTO {
+
+    private Long orderId;
+    private String reason;
+}
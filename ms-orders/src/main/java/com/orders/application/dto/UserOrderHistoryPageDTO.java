@@ -0,0 +1,22 @@
+package com.orders.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page de l'historique d'un utilisateur. {@code nextCursor} est null quand il n'y a plus de commande à lire.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderHistoryPageDTO {
+
+    private List<UserOrderSummaryDTO> orders = new ArrayList<>();
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.orders.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.orders.domain.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummaryDTO {
+
+    private Long orderId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime orderDate;
+
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+}
@@ -4,10 +4,7 @@ import com.orders.application.dto.OrderItemRequestDTO;
 import com.orders.application.dto.OrderItemResponseDTO;
 import com.orders.application.dto.OrderedProductDTO;
 import com.orders.domain.entity.OrderItem;
-import com.orders.infrastructure.client.ProductClient;
-import com.orders.infrastructure.exception.ProductOutOfStockException;
 import com.orders.infrastructure.exception.ResourceNotFoundException;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -15,25 +12,12 @@ import java.math.BigDecimal;
 
 @Slf4j
 @Component
-@AllArgsConstructor
 public class OrderItemMapper {
 
-
-    private final ProductClient productClient;
-
-
-    public OrderItem toEntity(OrderItemRequestDTO orderItemRequestDTO) {
-        OrderedProductDTO orderedProductDTO = productClient.getProduct(orderItemRequestDTO.getProductId());
+    public OrderItem toEntity(OrderItemRequestDTO orderItemRequestDTO, OrderedProductDTO orderedProductDTO) {
         if (orderedProductDTO == null) {
             throw new ResourceNotFoundException("Product", "id", orderItemRequestDTO.getProductId());
         }
-        if (orderedProductDTO.getStock() < orderItemRequestDTO.getQuantity()) {
-            throw new ProductOutOfStockException(orderedProductDTO.getStock(), orderItemRequestDTO.getQuantity());
-        }
-        OrderedProductDTO updatedProduct = productClient.updateStock(orderItemRequestDTO.getProductId(), orderItemRequestDTO.getQuantity() * -1);
-        if (updatedProduct == null) {
-            throw new ResourceNotFoundException("Updated Product", "id", orderItemRequestDTO.getProductId());
-        }
 
         log.info("Name of product: {}", orderedProductDTO.getName());
         return OrderItem.builder()
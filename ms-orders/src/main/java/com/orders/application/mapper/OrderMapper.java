@@ -6,7 +6,6 @@ import com.orders.application.dto.OrderResponseDTO;
 import com.orders.application.dto.OrderedProductDTO;
 import com.orders.domain.entity.Order;
 import com.orders.domain.entity.OrderItem;
-import com.orders.infrastructure.client.ProductClient;
 import com.orders.infrastructure.security.UserDetails;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -14,21 +13,23 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 @AllArgsConstructor
 public class OrderMapper {
 
-    private ProductClient productClient;
     private OrderItemMapper orderItemMapper;
 
-    public Order toEntity(OrderRequestDTO orderRequestDTO) {
-        List<OrderItemRequestDTO> orderItems = orderRequestDTO.getOrderItems();
-        List<BigDecimal> productsPrice = orderItems.stream().map(orderItem -> productClient.getProduct(orderItem.getProductId()).getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity()))).toList();
+    /**
+     * Construit la commande à partir de lignes déjà regroupées par produit et des produits récupérés auprès de ms-products.
+     * Les lignes de {@code orderRequestDTO} ne sont pas lues : seules {@code orderItems} sont utilisées.
+     */
+    public Order toEntity(OrderRequestDTO orderRequestDTO, List<OrderItemRequestDTO> orderItems, Map<Long, OrderedProductDTO> products) {
         BigDecimal totalAmount = new BigDecimal(0);
-        for (BigDecimal price : productsPrice) {
-            totalAmount = totalAmount.add(price);
+        for (OrderItemRequestDTO orderItem : orderItems) {
+            totalAmount = totalAmount.add(products.get(orderItem.getProductId()).getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
         }
         Order order = Order.builder()
                 .userId(orderRequestDTO.getUserId())
@@ -38,8 +39,8 @@ public class OrderMapper {
                 .shippingAddress(orderRequestDTO.getShippingAddress())
                 .build();
 
-        List<OrderItem> items = orderRequestDTO.getOrderItems().stream()
-                .map(orderItemMapper::toEntity)
+        List<OrderItem> items = orderItems.stream()
+                .map(orderItem -> orderItemMapper.toEntity(orderItem, products.get(orderItem.getProductId())))
                 .toList();
 
         for (OrderItem item : items) {
@@ -58,6 +59,7 @@ public class OrderMapper {
                 .status(order.getStatus())
                 .totalAmount(order.getTotalAmount())
                 .shippingAddress(order.getShippingAddress())
+                .stockStatus(order.getStockStatus())
                 .createdAt(order.getCreatedAt())
                 .updatedAt(order.getUpdatedAt())
                 .orderItems(order.getOrderItems().stream().map(orderItemMapper::toDTO).collect(Collectors.toList()))
@@ -0,0 +1,153 @@
+package com.orders.application.service;
+
+import com.orders.application.dto.BulkStatusUpdateRequestDTO;
+import com.orders.application.dto.BulkStatusUpdateResponseDTO;
+import com.orders.application.dto.SkippedOrderDTO;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OrderStatusRow;
+import com.orders.domain.repository.UserOrderSummaryRepository;
+import com.orders.infrastructure.metrics.OrderMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changement de statut d'un grand nombre de commandes (fin de journée entrepôt). Les IDs sont traités par blocs,
+ * chaque bloc dans sa propre transaction : une lecture des statuts courants puis un seul UPDATE ensembliste qui
+ * exclut les commandes annulées ou livrées. Les commandes ignorées sont rapportées avec leur motif.
+ */
+@Slf4j
+@Service
+public class BulkStatusUpdateService {
+
+    private final OrderRepository orderRepository;
+    private final UserOrderSummaryRepository userOrderSummaryRepository;
+    private final OrderMetrics orderMetrics;
+    private final OrderStatusEventService orderStatusEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxOrders;
+
+    public BulkStatusUpdateService(
+            OrderRepository orderRepository,
+            UserOrderSummaryRepository userOrderSummaryRepository,
+            OrderMetrics orderMetrics,
+            OrderStatusEventService orderStatusEventService,
+            TransactionTemplate transactionTemplate,
+            @Value("${orders.bulk-status.chunk-size:500}") int chunkSize,
+            @Value("${orders.bulk-status.max-orders:10000}") int maxOrders) {
+        this.orderRepository = orderRepository;
+        this.userOrderSummaryRepository = userOrderSummaryRepository;
+        this.orderMetrics = orderMetrics;
+        this.orderStatusEventService = orderStatusEventService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxOrders = maxOrders;
+    }
+
+    public BulkStatusUpdateResponseDTO updateStatuses(BulkStatusUpdateRequestDTO request) {
+        List<Long> orderIds = resolveOrderIds(request);
+        OrderStatus target = request.getStatus();
+        Set<OrderStatus> sources = sourcesOf(request);
+        log.debug("Changement de statut groupé vers {} pour {} commandes", target, orderIds.size());
+
+        BulkStatusUpdateResponseDTO response = BulkStatusUpdateResponseDTO.builder()
+                .status(target)
+                .updatedIds(new ArrayList<>())
+                .skipped(new ArrayList<>())
+                .build();
+        for (int start = 0; start < orderIds.size(); start += chunkSize) {
+            List<Long> chunk = orderIds.subList(start, Math.min(start + chunkSize, orderIds.size()));
+            transactionTemplate.executeWithoutResult(status -> updateChunk(chunk, target, sources, response));
+        }
+        response.setUpdatedCount(response.getUpdatedIds().size());
+
+        log.info("Changement de statut groupé vers {}: {} commandes mises à jour, {} ignorées",
+                target, response.getUpdatedCount(), response.getSkipped().size());
+        return response;
+    }
+
+    private List<Long> resolveOrderIds(BulkStatusUpdateRequestDTO request) {
+        boolean hasIds = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        boolean hasPeriod = request.getFrom() != null || request.getTo() != null;
+        boolean valid = hasIds ? !hasPeriod : hasPeriod || request.getCurrentStatus() != null;
+        if (!valid) {
+            throw new IllegalArgumentException("Indiquer soit une liste d'IDs, soit un filtre (currentStatus, from, to)");
+        }
+        List<Long> orderIds = hasIds
+                ? new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()))
+                : orderRepository.findIdsByFilter(request.getCurrentStatus(), request.getFrom(), request.getTo(), Limit.of(maxOrders + 1));
+        if (orderIds.size() > maxOrders) {
+            throw new IllegalArgumentException("Un changement de statut groupé est limité à " + maxOrders + " commandes");
+        }
+        return orderIds;
+    }
+
+    /**
+     * Statuts depuis lesquels l'UPDATE est autorisé. Avec un filtre sur le statut courant, une commande qui en a changé
+     * entre la sélection et l'UPDATE n'est pas modifiée (une commande confirmée entre-temps n'est pas annulée).
+     */
+    private Set<OrderStatus> sourcesOf(BulkStatusUpdateRequestDTO request) {
+        Set<OrderStatus> sources = OrderStatus.allowedSourcesOf(request.getStatus());
+        if (request.getCurrentStatus() != null) {
+            sources.retainAll(Set.of(request.getCurrentStatus()));
+        }
+        return sources;
+    }
+
+    private void updateChunk(List<Long> chunk, OrderStatus target, Set<OrderStatus> sources, BulkStatusUpdateResponseDTO response) {
+        Map<Long, OrderStatusRow> rows = new HashMap<>();
+        orderRepository.findStatusRows(chunk).forEach(row -> rows.put(row.getId(), row));
+
+        List<Long> eligible = new ArrayList<>();
+        for (Long orderId : chunk) {
+            OrderStatusRow row = rows.get(orderId);
+            if (row == null) {
+                response.getSkipped().add(new SkippedOrderDTO(orderId, "Commande introuvable"));
+            } else if (!row.getStatus().canTransitionTo(target)) {
+                response.getSkipped().add(new SkippedOrderDTO(orderId, "Commande " + row.getStatus().name().toLowerCase() + ", statut non modifiable"));
+            } else if (!sources.contains(row.getStatus())) {
+                response.getSkipped().add(new SkippedOrderDTO(orderId, "Commande " + row.getStatus().name().toLowerCase() + ", statut modifié depuis la sélection"));
+            } else {
+                eligible.add(orderId);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderRepository.updateStatuses(eligible, target, sources, now);
+        List<Long> updatedIds = eligible;
+        if (updated < eligible.size()) {
+            // Une commande a changé de statut entre la lecture et l'UPDATE : on relit pour savoir lesquelles
+            updatedIds = new ArrayList<>();
+            for (OrderStatusRow row : orderRepository.findStatusRows(eligible)) {
+                if (row.getStatus() == target) {
+                    updatedIds.add(row.getId());
+                } else {
+                    response.getSkipped().add(new SkippedOrderDTO(row.getId(), "Statut modifié pendant la mise à jour"));
+                }
+            }
+        }
+
+        userOrderSummaryRepository.updateStatuses(updatedIds, target, now);
+        for (Long orderId : updatedIds) {
+            OrderStatusRow row = rows.get(orderId);
+            orderMetrics.recordStatusChange(row.getOrderDate(), row.getTotalAmount(), row.getStatus(), target);
+            orderStatusEventService.publish(row.getUserId(), orderId, row.getStatus(), target);
+        }
+        response.getUpdatedIds().addAll(updatedIds);
+    }
+}
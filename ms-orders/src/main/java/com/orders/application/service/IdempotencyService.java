@@ -0,0 +1,117 @@
+package com.orders.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orders.infrastructure.exception.IdempotencyKeyMismatchException;
+import com.orders.infrastructure.exception.IdempotentRequestInProgressException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Mémoire bornée et expirante des requêtes portant un en-tête {@code Idempotency-Key}.
+ * Pour chaque clé (propre à un utilisateur) on garde l'empreinte de la requête et sa réponse :
+ * une requête rejouée reçoit la réponse d'origine sans nouvel appel distant, un doublon concurrent attend
+ * la fin de la requête en cours. Une requête en échec libère la clé pour qu'elle puisse être retentée.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries;
+    private final Duration waitTimeout;
+
+    private record Entry(byte[] requestHash, CompletableFuture<Object> response) {
+    }
+
+    /**
+     * Réponse d'une requête idempotente ; {@code replayed} indique qu'elle provient d'une exécution précédente.
+     */
+    public record Result<T>(T response, boolean replayed) {
+    }
+
+    public IdempotencyService(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+            @Value("${orders.idempotency.max-size:100000}") long maxSize,
+            @Value("${orders.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "orders.idempotency");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("La clé d'idempotence doit contenir entre 1 et " + MAX_KEY_LENGTH + " caractères");
+        }
+        String storeKey = scope + ":" + key;
+        Entry entry = new Entry(hash(request), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+
+        if (existing != null) {
+            if (!Arrays.equals(existing.requestHash(), entry.requestHash())) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            log.info("Requête rejouée avec la clé d'idempotence {}", key);
+            return new Result<>((T) await(existing, key), true);
+        }
+
+        try {
+            T response = action.get();
+            entry.response().complete(response);
+            return new Result<>(response, false);
+        } catch (RuntimeException e) {
+            entries.asMap().remove(storeKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(Entry entry, String key) {
+        try {
+            return entry.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        }
+    }
+
+    private byte[] hash(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Impossible de calculer l'empreinte de la requête", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.orders.application.service;
+
+import com.orders.domain.repository.OrderArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Déplace les commandes livrées ou annulées depuis plus de {@code orders.archive.min-age} vers les tables d'archive,
+ * pour que les tables orders et order_items ne contiennent que les commandes encore vivantes.
+ * Chaque bloc est copié puis supprimé dans sa propre transaction ; l'historique utilisateur n'est pas modifié.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedOrders;
+    private final Counter archivedOrderItems;
+    private final Timer archiveTimer;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    public OrderArchiveService(
+            OrderArchiveRepository orderArchiveRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.archive.min-age:30d}") Duration minAge,
+            @Value("${orders.archive.chunk-size:500}") int chunkSize,
+            @Value("${orders.archive.max-chunks:200}") int maxChunks) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.archivedOrders = Counter.builder("orders.archive.rows")
+                .description("Lignes déplacées vers les tables d'archive")
+                .tag("table", "orders")
+                .register(meterRegistry);
+        this.archivedOrderItems = Counter.builder("orders.archive.rows")
+                .description("Lignes déplacées vers les tables d'archive")
+                .tag("table", "order_items")
+                .register(meterRegistry);
+        this.archiveTimer = Timer.builder("orders.archive.duration")
+                .description("Durée d'une exécution de l'archivage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archive au plus {@code max-chunks} blocs par exécution, pour ne pas monopoliser la base ; le reste est repris
+     * à l'exécution suivante. Retourne le nombre de commandes archivées.
+     */
+    @Scheduled(cron = "${orders.archive.cron:0 30 2 * * *}")
+    public int archiveTerminalOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        return archiveTimer.record(() -> {
+            int total = 0;
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                OrderArchiveRepository.ArchiveResult result = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                archivedOrders.increment(result.orders());
+                archivedOrderItems.increment(result.orderItems());
+                total += result.orders();
+                if (result.orders() < chunkSize) {
+                    break;
+                }
+            }
+            log.info("Archivage terminé: {} commandes livrées ou annulées avant {} archivées", total, cutoff);
+            return total;
+        });
+    }
+
+    private OrderArchiveRepository.ArchiveResult archiveChunk(LocalDateTime cutoff) {
+        List<Long> orderIds = orderArchiveRepository.findArchivableIds(cutoff, chunkSize);
+        if (orderIds.isEmpty()) {
+            return new OrderArchiveRepository.ArchiveResult(0, 0);
+        }
+        OrderArchiveRepository.ArchiveResult result = orderArchiveRepository.archive(orderIds);
+        log.debug("{} commandes et {} lignes archivées", result.orders(), result.orderItems());
+        return result;
+    }
+}
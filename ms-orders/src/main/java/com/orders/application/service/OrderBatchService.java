@@ -0,0 +1,220 @@
+package com.orders.application.service;
+
+import com.orders.application.dto.OrderBatchResponseDTO;
+import com.orders.application.dto.OrderBatchResultDTO;
+import com.orders.application.dto.OrderItemRequestDTO;
+import com.orders.application.dto.OrderRequestDTO;
+import com.orders.application.dto.OrderedProductDTO;
+import com.orders.application.dto.OrderedProductsDTO;
+import com.orders.application.mapper.OrderMapper;
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OutboxEvent;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.OrderBatchRepository;
+import com.orders.infrastructure.client.ProductClient;
+import com.orders.infrastructure.client.UserClient;
+import com.orders.infrastructure.exception.ExternalServiceDownException;
+import com.orders.infrastructure.metrics.OrderMetrics;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Création groupée de commandes (partenaires B2B). Les utilisateurs et les produits sont vérifiés une seule fois
+ * pour tout le lot, le stock est contrôlé en cumulé sur le lot, puis toutes les commandes retenues sont écrites
+ * par insertions JDBC groupées dans une seule transaction avec leurs événements de réservation.
+ * Une commande invalide est rejetée individuellement sans faire échouer le reste du lot.
+ */
+@Slf4j
+@Service
+public class OrderBatchService {
+
+    private final OrderMapper orderMapper;
+    private final OrderBatchRepository orderBatchRepository;
+    private final OrderMetrics orderMetrics;
+    private final UserClient userClient;
+    private final ProductClient productClient;
+    private final StockReservationSaga stockReservationSaga;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Duration downstreamTimeout;
+    private final int maxConcurrency;
+    private final int maxOrders;
+
+    public OrderBatchService(
+            OrderMapper orderMapper,
+            OrderBatchRepository orderBatchRepository,
+            OrderMetrics orderMetrics,
+            UserClient userClient,
+            ProductClient productClient,
+            StockReservationSaga stockReservationSaga,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            @Value("${orders.downstream.timeout:3s}") Duration downstreamTimeout,
+            @Value("${orders.downstream.max-concurrency:4}") int maxConcurrency,
+            @Value("${orders.batch.max-orders:500}") int maxOrders) {
+        this.orderMapper = orderMapper;
+        this.orderBatchRepository = orderBatchRepository;
+        this.orderMetrics = orderMetrics;
+        this.userClient = userClient;
+        this.productClient = productClient;
+        this.stockReservationSaga = stockReservationSaga;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.downstreamTimeout = downstreamTimeout;
+        this.maxConcurrency = maxConcurrency;
+        this.maxOrders = maxOrders;
+    }
+
+    public OrderBatchResponseDTO createOrders(List<OrderRequestDTO> requests, Long callerId) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxOrders) {
+            throw new IllegalArgumentException("Un lot doit contenir entre 1 et " + maxOrders + " commandes");
+        }
+        log.debug("Création groupée de {} commandes", requests.size());
+
+        List<OrderBatchResultDTO> results = new ArrayList<>();
+        List<OrderRequestDTO> candidates = new ArrayList<>();
+        List<OrderBatchResultDTO> candidateResults = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            OrderRequestDTO request = requests.get(index);
+            OrderBatchResultDTO result = OrderBatchResultDTO.builder().index(index).errors(new ArrayList<>()).build();
+            results.add(result);
+            if (request == null) {
+                result.getErrors().add("Commande vide");
+                continue;
+            }
+            // Un lot ne crée que des commandes de l'appelant : un userId différent est refusé plutôt que réattribué
+            if (request.getUserId() != null && !request.getUserId().equals(callerId)) {
+                result.getErrors().add("userId: une commande en lot ne peut être passée que pour l'appelant");
+                continue;
+            }
+            request.setUserId(callerId);
+            for (ConstraintViolation<OrderRequestDTO> violation : validator.validate(request)) {
+                result.getErrors().add(violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            if (result.getErrors().isEmpty()) {
+                request.setOrderItems(OrderService.mergeItems(request.getOrderItems()));
+                candidates.add(request);
+                candidateResults.add(result);
+            }
+        }
+
+        List<Order> orders = new ArrayList<>();
+        List<OrderRequestDTO> accepted = new ArrayList<>();
+        List<OrderBatchResultDTO> acceptedResults = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            Tuple2<Map<Long, Boolean>, OrderedProductsDTO> lookups = fetchUsersAndProducts(candidates);
+            Map<Long, OrderedProductDTO> products = new HashMap<>();
+            lookups.getT2().getProducts().forEach(product -> products.put(product.getId(), product));
+            Map<Long, Integer> remainingStock = new HashMap<>();
+            products.values().forEach(product -> remainingStock.put(product.getId(), product.getStock()));
+
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < candidates.size(); i++) {
+                OrderRequestDTO request = candidates.get(i);
+                OrderBatchResultDTO result = candidateResults.get(i);
+                if (!Boolean.TRUE.equals(lookups.getT1().get(request.getUserId()))) {
+                    result.getErrors().add("Utilisateur introuvable: " + request.getUserId());
+                    continue;
+                }
+                checkProductsAndStock(request, products, remainingStock, result.getErrors());
+                if (!result.getErrors().isEmpty()) {
+                    continue;
+                }
+                Order order = orderMapper.toEntity(request, request.getOrderItems(), products);
+                order.setStatus(OrderStatus.PENDING);
+                order.setCreatedAt(now);
+                order.setUpdatedAt(now);
+                orders.add(order);
+                accepted.add(request);
+                acceptedResults.add(result);
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderBatchRepository.insertOrders(orders);
+                List<OutboxEvent> events = new ArrayList<>();
+                for (int i = 0; i < orders.size(); i++) {
+                    events.add(stockReservationSaga.reservationEvent(orders.get(i), accepted.get(i).getOrderItems()));
+                    orderMetrics.recordCreated(orders.get(i));
+                }
+                orderBatchRepository.insertOutboxEvents(events);
+            });
+            for (int i = 0; i < orders.size(); i++) {
+                orderMetrics.incrementCreatedOrders(orders.get(i).getStatus());
+                acceptedResults.get(i).setCreated(true);
+                acceptedResults.get(i).setOrder(orderMapper.toDTO(orders.get(i)));
+            }
+        }
+
+        int created = orders.size();
+        log.info("Création groupée terminée: {} commandes créées, {} rejetées", created, requests.size() - created);
+        return OrderBatchResponseDTO.builder()
+                .createdCount(created)
+                .rejectedCount(requests.size() - created)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Contrôle les produits d'une commande et décompte le stock disponible sur le lot, dans l'ordre de la requête.
+     * Ce contrôle s'appuie sur le stock connu au moment de la lecture ; la réservation faite ensuite par la saga fait foi.
+     */
+    private static void checkProductsAndStock(OrderRequestDTO request, Map<Long, OrderedProductDTO> products,
+                                              Map<Long, Integer> remainingStock, List<String> errors) {
+        for (OrderItemRequestDTO item : request.getOrderItems()) {
+            if (!products.containsKey(item.getProductId())) {
+                errors.add("Produit introuvable: " + item.getProductId());
+            } else if (remainingStock.get(item.getProductId()) != null && remainingStock.get(item.getProductId()) < item.getQuantity()) {
+                errors.add("Stock insuffisant pour le produit: " + item.getProductId());
+            }
+        }
+        if (errors.isEmpty()) {
+            request.getOrderItems().forEach(item -> remainingStock.computeIfPresent(item.getProductId(), (id, stock) -> stock - item.getQuantity()));
+        }
+    }
+
+    /**
+     * Vérifie en parallèle tous les utilisateurs distincts du lot et récupère tous ses produits en un appel groupé.
+     */
+    private Tuple2<Map<Long, Boolean>, OrderedProductsDTO> fetchUsersAndProducts(List<OrderRequestDTO> requests) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderRequestDTO request : requests) {
+            userIds.add(request.getUserId());
+            request.getOrderItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+
+        // Les appels sont assemblés ici, sur le thread de la requête, pour que chacun capture le token de l'appelant
+        List<Mono<Map.Entry<Long, Boolean>>> userChecks = userIds.stream()
+                .map(userId -> userClient.isUserExistAsync(userId).map(exists -> Map.entry(userId, exists)))
+                .toList();
+        Mono<Map<Long, Boolean>> users = Flux.fromIterable(userChecks)
+                .flatMap(check -> check, maxConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+
+        // Une réponse vide est traitée comme un service indisponible : le résultat de block() n'est jamais null
+        return Mono.zip(users, productClient.getProductsAsync(productIds))
+                .timeout(downstreamTimeout)
+                .switchIfEmpty(Mono.error(() -> new ExternalServiceDownException("user-service/product-service", "batch", String.valueOf(requests.size()))))
+                .onErrorMap(TimeoutException.class, e -> new ExternalServiceDownException("user-service/product-service", "batch", String.valueOf(requests.size())))
+                .block();
+    }
+}
@@ -0,0 +1,167 @@
+package com.orders.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.dto.OrderItemResponseDTO;
+import com.orders.application.dto.OrderResponseDTO;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.OrderExportRow;
+import com.orders.domain.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Export des commandes en flux : les lignes sont lues par un curseur en avant seulement et écrites au fil de l'eau,
+ * une seule commande est gardée en mémoire à la fois quel que soit le volume exporté.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    private static final String CSV_HEADER = "order_id,user_id,order_date,status,total_amount,shipping_address,created_at,updated_at,"
+            + "item_id,product_id,product_name,unit_price,quantity,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final int flushEvery;
+
+    public OrderExportService(
+            OrderRepository orderRepository,
+            ObjectMapper objectMapper,
+            @Value("${orders.export.flush-every:500}") int flushEvery) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.flushEvery = flushEvery;
+    }
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV;
+
+        public static ExportFormat fromString(String value) {
+            try {
+                return ExportFormat.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format d'export inconnu: " + value);
+            }
+        }
+    }
+
+    /**
+     * Écrit les commandes filtrées dans {@code out}. NDJSON : une commande par ligne avec ses articles ;
+     * CSV : une ligne par article, les colonnes de la commande étant répétées. La sortie est vidée toutes les
+     * {@code flushEvery} commandes pour que le client reçoive les données au fur et à mesure.
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(ExportFormat format, OrderStatus status, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        log.info("Export des commandes au format {} (statut: {}, du {} au {})", format, status, from, to);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long exported = 0;
+
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(status, from, to)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            OrderResponseDTO current = null;
+            Long previousOrderId = null;
+            while (iterator.hasNext()) {
+                OrderExportRow row = iterator.next();
+                boolean newOrder = !Objects.equals(row.getOrderId(), previousOrderId);
+                previousOrderId = row.getOrderId();
+
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, row);
+                    if (newOrder && ++exported % flushEvery == 0) {
+                        writer.flush();
+                    }
+                    continue;
+                }
+
+                if (newOrder) {
+                    if (current != null) {
+                        writeNdjsonLine(writer, current);
+                        if (++exported % flushEvery == 0) {
+                            writer.flush();
+                        }
+                    }
+                    current = toOrder(row);
+                }
+                if (row.getItemId() != null) {
+                    current.getOrderItems().add(toItem(row));
+                }
+            }
+            if (current != null) {
+                writeNdjsonLine(writer, current);
+                exported++;
+            }
+        }
+        writer.flush();
+        log.info("Export terminé: {} commandes écrites", exported);
+        return exported;
+    }
+
+    private void writeNdjsonLine(Writer writer, OrderResponseDTO order) throws IOException {
+        writer.write(objectMapper.writeValueAsString(order));
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(String.join(",",
+                csv(row.getOrderId()), csv(row.getUserId()), csv(row.getOrderDate()), csv(row.getStatus()),
+                csv(row.getTotalAmount()), csv(row.getShippingAddress()), csv(row.getCreatedAt()), csv(row.getUpdatedAt()),
+                csv(row.getItemId()), csv(row.getProductId()), csv(row.getProductName()),
+                csv(row.getUnitPrice()), csv(row.getQuantity()), csv(row.getSubtotal())));
+        writer.write('\n');
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static OrderResponseDTO toOrder(OrderExportRow row) {
+        return OrderResponseDTO.builder()
+                .id(row.getOrderId())
+                .userId(row.getUserId())
+                .orderDate(row.getOrderDate())
+                .status(row.getStatus())
+                .totalAmount(row.getTotalAmount())
+                .shippingAddress(row.getShippingAddress())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .orderItems(new ArrayList<>())
+                .build();
+    }
+
+    private static OrderItemResponseDTO toItem(OrderExportRow row) {
+        return OrderItemResponseDTO.builder()
+                .id(row.getItemId())
+                .productId(row.getProductId())
+                .productName(row.getProductName())
+                .unitPrice(row.getUnitPrice())
+                .quantity(row.getQuantity())
+                .subtotal(row.getSubtotal())
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.orders.application.service;
+
+import com.orders.application.dto.OrderPageDTO;
+import com.orders.application.dto.OrderResponseDTO;
+import com.orders.application.dto.OrderSearchCriteriaDTO;
+import com.orders.application.mapper.OrderMapper;
+import com.orders.domain.entity.Order;
+import com.orders.domain.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.orders.domain.repository.OrderSpecifications.containsProduct;
+import static com.orders.domain.repository.OrderSpecifications.hasStatusIn;
+import static com.orders.domain.repository.OrderSpecifications.hasUserId;
+import static com.orders.domain.repository.OrderSpecifications.orderedBetween;
+import static com.orders.domain.repository.OrderSpecifications.totalAmountBetween;
+
+/**
+ * Recherche multicritère paginée. Seule la page demandée est chargée ; ses lignes sont ensuite lues par lots
+ * (hibernate.default_batch_fetch_size) au lieu d'une jointure qui obligerait Hibernate à paginer en mémoire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderSearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "orderDate", "totalAmount", "status", "userId");
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+
+    public OrderPageDTO search(OrderSearchCriteriaDTO criteria, Integer page, Integer size, String sort) {
+        validate(criteria);
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Page<Order> orders = orderRepository.findAll(hasUserId(criteria.getUserId())
+                        .and(hasStatusIn(criteria.getStatuses()))
+                        .and(orderedBetween(criteria.getFrom(), criteria.getTo()))
+                        .and(totalAmountBetween(criteria.getMinAmount(), criteria.getMaxAmount()))
+                        .and(containsProduct(criteria.getProductId())),
+                PageRequest.of(pageNumber, pageSize, parseSort(sort)));
+        log.info("Recherche de commandes: {} résultats, page {} sur {}", orders.getTotalElements(), pageNumber, orders.getTotalPages());
+
+        List<OrderResponseDTO> content = orders.getContent().stream().map(orderMapper::toDTO).toList();
+        return OrderPageDTO.builder()
+                .orders(content)
+                .page(orders.getNumber())
+                .size(orders.getSize())
+                .totalElements(orders.getTotalElements())
+                .totalPages(orders.getTotalPages())
+                .build();
+    }
+
+    private static void validate(OrderSearchCriteriaDTO criteria) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && !criteria.getFrom().isBefore(criteria.getTo())) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Le montant minimal doit être inférieur au montant maximal");
+        }
+    }
+
+    /**
+     * Tri au format {@code champ} ou {@code champ,asc|desc} ; par défaut les commandes les plus récentes d'abord.
+     * L'ID est toujours ajouté en dernier critère pour que la pagination soit stable.
+     */
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+        }
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Tri impossible sur '" + field + "', champs autorisés: " + SORTABLE_FIELDS);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(() -> new IllegalArgumentException("Sens de tri invalide: " + parts[1]))
+                : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, field);
+        return field.equals("id") ? result : result.and(Sort.by(direction, "id"));
+    }
+}
@@ -1,35 +1,88 @@
 package com.orders.application.service;
 
+import com.orders.application.dto.OrderItemRequestDTO;
 import com.orders.application.dto.OrderRequestDTO;
 import com.orders.application.dto.OrderResponseDTO;
+import com.orders.application.dto.OrderedProductDTO;
+import com.orders.application.dto.OrderedProductsDTO;
 import com.orders.application.mapper.OrderMapper;
 import com.orders.domain.entity.Order;
 import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import com.orders.domain.repository.OrderArchiveRepository;
 import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OrderStatusRow;
+import com.orders.infrastructure.client.ProductClient;
 import com.orders.infrastructure.client.UserClient;
 import com.orders.infrastructure.exception.CommandCancelleOrDeliveredException;
+import com.orders.infrastructure.exception.ConcurrentOrderUpdateException;
+import com.orders.infrastructure.exception.ExternalServiceDownException;
 import com.orders.infrastructure.exception.ResourceNotFoundException;
 import com.orders.infrastructure.metrics.OrderMetrics;
 import com.orders.infrastructure.security.UserDetails;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class OrderService {
 
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 3;
+
     private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
     private final OrderMapper orderMapper;
     private final OrderMetrics orderMetrics;
     private final UserClient userClient;
+    private final ProductClient productClient;
+    private final UserOrderHistoryService userOrderHistoryService;
+    private final OrderStatusEventService orderStatusEventService;
+    private final StockReservationSaga stockReservationSaga;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration downstreamTimeout;
+
+    public OrderService(
+            OrderRepository orderRepository,
+            OrderArchiveRepository orderArchiveRepository,
+            OrderMapper orderMapper,
+            OrderMetrics orderMetrics,
+            UserClient userClient,
+            ProductClient productClient,
+            UserOrderHistoryService userOrderHistoryService,
+            OrderStatusEventService orderStatusEventService,
+            StockReservationSaga stockReservationSaga,
+            TransactionTemplate transactionTemplate,
+            @Value("${orders.downstream.timeout:3s}") Duration downstreamTimeout) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.orderMapper = orderMapper;
+        this.orderMetrics = orderMetrics;
+        this.userClient = userClient;
+        this.productClient = productClient;
+        this.userOrderHistoryService = userOrderHistoryService;
+        this.orderStatusEventService = orderStatusEventService;
+        this.stockReservationSaga = stockReservationSaga;
+        this.transactionTemplate = transactionTemplate;
+        this.downstreamTimeout = downstreamTimeout;
+    }
 
     private boolean userNotFound(Long userId) {
         return !userClient.isUserExist(userId);
@@ -45,37 +98,187 @@ public class OrderService {
     public OrderResponseDTO getOrderById(Long id) {
         //if (userNotFound(id)) throw new ResourceNotFoundException("User", "id", id);
         log.debug("Récupération de la commande avec l'id: {}", id);
-        OrderResponseDTO order = orderRepository.findById(id).map(orderMapper::toDTO).orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+        // Les commandes terminées depuis longtemps ne sont plus que dans l'archive
+        OrderResponseDTO order = orderRepository.findById(id)
+                .or(() -> orderArchiveRepository.findById(id))
+                .map(orderMapper::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
         log.info("Commande recuperée: {}", order);
         return order;
     }
 
-    @Transactional
+    /**
+     * Les lectures distantes (utilisateur, produits) sont faites hors transaction. La transaction ne contient que
+     * les écritures locales : la commande et l'événement outbox de réservation du stock, traité ensuite par
+     * {@link StockReservationSaga}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponseDTO createOrder(OrderRequestDTO orderRequestDTO) {
         //userId = UserDetails.getUserId();
         //orderRequestDTO.setUserId(userId);
-        if (userNotFound(orderRequestDTO.getUserId())) throw new ResourceNotFoundException("User", "id", orderRequestDTO.getUserId());
-        //if (userNotFound(userId)) throw new ResourceNotFoundException("User", "id", userId);
         log.debug("Création de la commande pour le user: {}", orderRequestDTO.getUserId());
-        Order order = orderMapper.toEntity(orderRequestDTO);
-        Order savedOrder = orderRepository.save(order);
+        List<OrderItemRequestDTO> orderItems = mergeItems(orderRequestDTO.getOrderItems());
+        Map<Long, OrderedProductDTO> products = fetchUserAndProducts(orderRequestDTO.getUserId(), orderItems);
+        Order order = orderMapper.toEntity(orderRequestDTO, orderItems, products);
+        // Tant que le stock n'est pas réservé, la commande reste en attente
+        order.setStatus(OrderStatus.PENDING);
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            stockReservationSaga.enqueue(saved, orderItems);
+            orderMetrics.recordCreated(saved);
+            userOrderHistoryService.onOrderCreated(saved);
+            return saved;
+        });
         orderMetrics.incrementCreatedOrders(savedOrder.getStatus());
         log.info("Commande crée: {}", savedOrder.getId());
         return orderMapper.toDTO(savedOrder);
     }
 
+    /**
+     * Regroupe les lignes portant sur le même produit pour ne solliciter ms-products qu'une fois par produit.
+     */
+    static List<OrderItemRequestDTO> mergeItems(List<OrderItemRequestDTO> orderItems) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequestDTO orderItem : orderItems) {
+            quantities.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+        }
+        return quantities.entrySet().stream()
+                .map(entry -> OrderItemRequestDTO.builder()
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Vérifie l'utilisateur et récupère les produits de la commande en parallèle, sous un timeout global :
+     * la latence de la création suit l'appel distant le plus lent plutôt que leur somme.
+     */
+    private Map<Long, OrderedProductDTO> fetchUserAndProducts(Long userId, List<OrderItemRequestDTO> orderItems) {
+        List<Long> productIds = orderItems.stream().map(OrderItemRequestDTO::getProductId).toList();
+
+        Tuple2<Boolean, OrderedProductsDTO> result = Mono.zip(userClient.isUserExistAsync(userId), productClient.getProductsAsync(productIds))
+                .timeout(downstreamTimeout)
+                .onErrorMap(TimeoutException.class, e -> new ExternalServiceDownException("user-service/product-service", "userId", String.valueOf(userId)))
+                .block();
+
+        if (result == null || !result.getT1()) throw new ResourceNotFoundException("User", "id", userId);
+        OrderedProductsDTO orderedProducts = result.getT2();
+        if (!orderedProducts.getMissingIds().isEmpty()) {
+            throw new ResourceNotFoundException("Product", "id", orderedProducts.getMissingIds().get(0));
+        }
+        Map<Long, OrderedProductDTO> products = new HashMap<>();
+        for (OrderedProductDTO product : orderedProducts.getProducts()) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
     @Transactional
     public OrderResponseDTO updateOrderStatus(Long id, String status) {
-        log.debug("Mise à jour du statut de la commande avec l'id: {}", id);
+        changeOrderStatus(id, OrderStatus.valueOf(status.toUpperCase()));
         Order order = orderRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
-        if (order.getStatus().equals(OrderStatus.CANCELLED) || order.getStatus().equals(OrderStatus.DELIVERED)) {
-            log.error("La commande est annulée ou livrée, impossible de mettre à jour le statut.");
-            throw new CommandCancelleOrDeliveredException("La commande est annulée ou livrée, impossible de mettre à jour le statut.", order.getStatus());
+        return orderMapper.toDTO(order);
+    }
+
+    /**
+     * Change le statut sans charger la commande : une projection donne le statut et la version courants, puis un
+     * UPDATE conditionnel applique la transition seulement si la base a toujours cette version et un statut source
+     * autorisé. Si une autre requête a modifié la commande entre-temps, la lecture est refaite.
+     */
+    @Transactional
+    public void changeOrderStatus(Long id, OrderStatus status) {
+        log.debug("Mise à jour du statut de la commande avec l'id: {}", id);
+        for (int attempt = 1; attempt <= MAX_STATUS_UPDATE_ATTEMPTS; attempt++) {
+            OrderStatusRow row = orderRepository.findStatusRow(id).orElseThrow(() -> orderNotFound(id));
+            if (!row.getStatus().canTransitionTo(status)) {
+                log.error("La commande est annulée ou livrée, impossible de mettre à jour le statut.");
+                throw new CommandCancelleOrDeliveredException("La commande est annulée ou livrée, impossible de mettre à jour le statut.", row.getStatus());
+            }
+            int updated = orderRepository.updateStatus(id, status, OrderStatus.allowedSourcesOf(status), row.getVersion(), LocalDateTime.now());
+            if (updated == 1) {
+                orderMetrics.recordStatusChange(row.getOrderDate(), row.getTotalAmount(), row.getStatus(), status);
+                userOrderHistoryService.onStatusChanged(id, status);
+                orderStatusEventService.publish(row.getUserId(), id, row.getStatus(), status);
+                log.info("Statut de la commande {} mis à jour: {}", id, status);
+                return;
+            }
+            log.debug("Commande {} modifiée simultanément, nouvelle tentative ({}/{})", id, attempt, MAX_STATUS_UPDATE_ATTEMPTS);
         }
-        order.setStatus(OrderStatus.valueOf(status.toUpperCase()));
-        Order savedOrder = orderRepository.save(order);
-        log.info("Statut de la commande mis à jour: {}", savedOrder.getStatus());
-        return orderMapper.toDTO(savedOrder);
+        throw new ConcurrentOrderUpdateException(id);
+    }
+
+    /**
+     * Une commande archivée est forcément livrée ou annulée : son statut ne peut plus changer.
+     */
+    private RuntimeException orderNotFound(Long id) {
+        return orderArchiveRepository.findById(id)
+                .<RuntimeException>map(archived -> new CommandCancelleOrDeliveredException("La commande est annulée ou livrée, impossible de mettre à jour le statut.", archived.getStatus()))
+                .orElseGet(() -> new ResourceNotFoundException("Order", "id", id));
+    }
+
+    /**
+     * Issue positive de la saga : le stock de la commande est réservé chez ms-products.
+     */
+    @Transactional
+    public void markStockReserved(Long id) {
+        orderRepository.updateStockStatus(id, StockReservationStatus.PENDING, StockReservationStatus.RESERVED, LocalDateTime.now());
+    }
+
+    /**
+     * Compensation de la saga : ms-products a refusé la réservation, la commande est annulée si elle est encore PENDING.
+     */
+    @Transactional
+    public void rejectStockReservation(Long id) {
+        endStockReservation(id, StockReservationStatus.REJECTED);
+    }
+
+    /**
+     * La réservation a été abandonnée alors qu'un essai a pu être appliqué par ms-products : la commande est annulée si
+     * elle est encore PENDING et reste en CANCELLING jusqu'à ce que ms-products confirme l'annulation de la réservation.
+     */
+    @Transactional
+    public void abandonStockReservation(Long id) {
+        endStockReservation(id, StockReservationStatus.CANCELLING);
+    }
+
+    /**
+     * ms-products a confirmé l'annulation de la réservation : la commande ne retient plus de stock.
+     */
+    @Transactional
+    public void markStockReservationCancelled(Long id) {
+        orderRepository.updateStockStatus(id, StockReservationStatus.CANCELLING, StockReservationStatus.RELEASED, LocalDateTime.now());
+    }
+
+    /**
+     * L'annulation passe par le même UPDATE conditionnel que changeOrderStatus, restreint aux commandes PENDING : une
+     * commande confirmée, expédiée ou livrée entre-temps garde son statut et seul son statut de stock est mis à jour.
+     */
+    private void endStockReservation(Long id, StockReservationStatus stockStatus) {
+        for (int attempt = 1; attempt <= MAX_STATUS_UPDATE_ATTEMPTS; attempt++) {
+            Optional<OrderStatusRow> found = orderRepository.findStatusRow(id);
+            if (found.isEmpty()) {
+                log.warn("Commande {} introuvable, fin de réservation {} ignorée", id, stockStatus);
+                return;
+            }
+            OrderStatusRow row = found.get();
+            if (row.getStatus() != OrderStatus.PENDING) {
+                orderRepository.updateStockStatus(id, StockReservationStatus.PENDING, stockStatus, LocalDateTime.now());
+                if (row.getStatus() != OrderStatus.CANCELLED) {
+                    log.warn("Commande {} en statut {}, non annulée malgré la réservation {}", id, row.getStatus(), stockStatus);
+                }
+                return;
+            }
+            if (orderRepository.cancelPending(id, stockStatus, row.getVersion(), LocalDateTime.now()) == 1) {
+                orderMetrics.recordStatusChange(row.getOrderDate(), row.getTotalAmount(), OrderStatus.PENDING, OrderStatus.CANCELLED);
+                userOrderHistoryService.onStatusChanged(id, OrderStatus.CANCELLED);
+                orderStatusEventService.publish(row.getUserId(), id, OrderStatus.PENDING, OrderStatus.CANCELLED);
+                log.info("Commande {} annulée: réservation du stock {}", id, stockStatus);
+                return;
+            }
+            log.debug("Commande {} modifiée simultanément, nouvelle tentative ({}/{})", id, attempt, MAX_STATUS_UPDATE_ATTEMPTS);
+        }
+        throw new ConcurrentOrderUpdateException(id);
     }
 
     @Transactional
@@ -83,6 +286,8 @@ public class OrderService {
         log.debug("Suppression de la commande avec l'id: {}", id);
         Order order = orderRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
         orderRepository.delete(order);
+        orderMetrics.recordDeleted(order);
+        userOrderHistoryService.onOrderDeleted(id);
         log.info("Commande supprimée: {}", id);
     }
 
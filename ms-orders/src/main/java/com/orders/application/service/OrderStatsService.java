@@ -0,0 +1,141 @@
+package com.orders.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orders.application.dto.OrderStatsBucketDTO;
+import com.orders.application.dto.OrderStatsDTO;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.OrderArchiveRepository;
+import com.orders.domain.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistiques des commandes calculées par des requêtes GROUP BY. Les résultats sont gardés quelques secondes
+ * par période demandée : les tableaux de bord qui interrogent en boucle ne déclenchent qu'une agrégation par intervalle.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class OrderStatsService {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final Cache<Period, OrderStatsDTO> statsCache;
+    private final long maxRangeDays;
+    private final Duration archiveMinAge;
+
+    private record Period(LocalDate from, LocalDate to) {
+    }
+
+    private record Total(long orderCount, BigDecimal totalAmount) {
+
+        private Total plus(Total other) {
+            return new Total(orderCount + other.orderCount, totalAmount.add(other.totalAmount));
+        }
+    }
+
+    public OrderStatsService(
+            OrderRepository orderRepository,
+            OrderArchiveRepository orderArchiveRepository,
+            MeterRegistry meterRegistry,
+            @Value("${orders.stats.ttl:10s}") Duration ttl,
+            @Value("${orders.stats.max-size:100}") long maxSize,
+            @Value("${orders.stats.max-range-days:366}") long maxRangeDays,
+            @Value("${orders.archive.min-age:30d}") Duration archiveMinAge) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.maxRangeDays = maxRangeDays;
+        this.archiveMinAge = archiveMinAge;
+        this.statsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statsCache, "orders.stats");
+    }
+
+    /**
+     * Statistiques sur la période [from, to], bornes incluses. Par défaut, les 30 derniers jours.
+     */
+    public OrderStatsDTO getStats(LocalDate from, LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(29) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxRangeDays) {
+            throw new IllegalArgumentException("La période demandée dépasse " + maxRangeDays + " jours");
+        }
+        return statsCache.get(new Period(start, end), this::computeStats);
+    }
+
+    private OrderStatsDTO computeStats(Period period) {
+        log.debug("Calcul des statistiques des commandes du {} au {}", period.from(), period.to());
+        LocalDateTime start = period.from().atStartOfDay();
+        LocalDateTime end = period.to().plusDays(1).atStartOfDay();
+
+        Map<OrderStatus, Total> totalsByStatus = new EnumMap<>(OrderStatus.class);
+        Map<LocalDate, Total> totalsByDay = new TreeMap<>();
+        orderRepository.sumTotalAmountByStatus(start, end).forEach(total ->
+                totalsByStatus.merge(total.getStatus(), new Total(total.getOrderCount(), total.getTotalAmount()), Total::plus));
+        orderRepository.sumTotalAmountByDay(start, end).forEach(total ->
+                totalsByDay.merge(total.getDay(), new Total(total.getOrderCount(), total.getTotalAmount()), Total::plus));
+        // Seules les commandes terminées depuis plus de archive.min-age ont pu être archivées
+        if (start.isBefore(LocalDateTime.now().minus(archiveMinAge))) {
+            orderArchiveRepository.sumTotalAmountByStatus(start, end).forEach(total ->
+                    totalsByStatus.merge(total.status(), new Total(total.orderCount(), total.totalAmount()), Total::plus));
+            orderArchiveRepository.sumTotalAmountByDay(start, end).forEach(total ->
+                    totalsByDay.merge(total.day(), new Total(total.orderCount(), total.totalAmount()), Total::plus));
+        }
+
+        List<OrderStatsBucketDTO> byStatus = totalsByStatus.entrySet().stream()
+                .map(entry -> toBucket(entry.getValue()).status(entry.getKey()).build())
+                .toList();
+        List<OrderStatsBucketDTO> byDay = totalsByDay.entrySet().stream()
+                .map(entry -> toBucket(entry.getValue()).day(entry.getKey()).build())
+                .toList();
+
+        long orderCount = byStatus.stream().mapToLong(OrderStatsBucketDTO::getOrderCount).sum();
+        BigDecimal totalAmount = byStatus.stream().map(OrderStatsBucketDTO::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return OrderStatsDTO.builder()
+                .from(period.from())
+                .to(period.to())
+                .orderCount(orderCount)
+                .totalAmount(totalAmount)
+                .averageBasket(average(totalAmount, orderCount))
+                .byStatus(byStatus)
+                .byDay(byDay)
+                .build();
+    }
+
+    private static OrderStatsBucketDTO.OrderStatsBucketDTOBuilder toBucket(Total total) {
+        return OrderStatsBucketDTO.builder()
+                .orderCount(total.orderCount())
+                .totalAmount(total.totalAmount())
+                .averageBasket(average(total.totalAmount(), total.orderCount()));
+    }
+
+    private static BigDecimal average(BigDecimal totalAmount, long orderCount) {
+        if (orderCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return totalAmount.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+    }
+}
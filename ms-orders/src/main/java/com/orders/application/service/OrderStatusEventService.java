@@ -0,0 +1,230 @@
+package com.orders.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orders.application.dto.OrderStatusEventDTO;
+import com.orders.domain.enums.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffusion en Server-Sent Events des changements de statut des commandes, par utilisateur.
+ * Une connexion ouverte ne coûte pas de thread : l'émetteur est asynchrone côté servlet, et chaque abonné a une file
+ * bornée vidée à la demande par un thread virtuel. Un abonné trop lent pour suivre est déconnecté ; il reprend
+ * avec l'en-tête {@code Last-Event-ID} grâce aux derniers événements conservés pour chaque utilisateur.
+ */
+@Slf4j
+@Service
+public class OrderStatusEventService {
+
+    private static final String EVENT_NAME = "order-status";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Cache<Long, Deque<OrderStatusEventDTO>> recentEvents;
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    // Amorcé sur l'horloge pour que les IDs restent croissants d'un redémarrage à l'autre
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final Counter droppedSubscribers;
+    private final int bufferSize;
+    private final int replaySize;
+    private final Duration timeout;
+
+    public OrderStatusEventService(
+            MeterRegistry meterRegistry,
+            @Value("${orders.events.buffer-size:32}") int bufferSize,
+            @Value("${orders.events.replay-size:50}") int replaySize,
+            @Value("${orders.events.replay-ttl:10m}") Duration replayTtl,
+            @Value("${orders.events.max-users:100000}") long maxUsers,
+            @Value("${orders.events.timeout:30m}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.timeout = timeout;
+        this.recentEvents = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(replayTtl)
+                .build();
+        this.droppedSubscribers = Counter.builder("orders.events.subscribers.dropped")
+                .description("Abonnés SSE déconnectés car leur file d'événements était pleine")
+                .register(meterRegistry);
+        meterRegistry.gauge("orders.events.subscribers", subscribers,
+                map -> map.values().stream().mapToInt(Set::size).sum());
+    }
+
+    /**
+     * Ouvre un flux pour l'utilisateur ; si {@code lastEventId} est fourni, les événements plus récents encore en
+     * mémoire sont renvoyés avant les nouveaux.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        Deque<OrderStatusEventDTO> recent = recentEvents.get(userId, id -> new ArrayDeque<>());
+        synchronized (recent) {
+            // Ajout dans compute : sérialisé avec le computeIfPresent de Subscriber.close, qui peut retirer l'ensemble
+            // vide du dernier abonné ; un ajout fait hors de la map pourrait tomber dans cet ensemble retiré
+            subscribers.compute(userId, (id, userSubscribers) -> {
+                Set<Subscriber> current = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+                current.add(subscriber);
+                return current;
+            });
+            if (lastEventId != null) {
+                recent.stream()
+                        .filter(event -> event.getEventId() > lastEventId)
+                        .forEach(event -> subscriber.offer(toSse(event)));
+            }
+        }
+        log.debug("Abonnement SSE ouvert pour l'utilisateur {} (Last-Event-ID: {})", userId, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Publie un changement de statut une fois la transaction validée.
+     */
+    public void publish(Long userId, Long orderId, OrderStatus previousStatus, OrderStatus status) {
+        if (previousStatus == status) {
+            return;
+        }
+        afterCommit(() -> dispatch(userId, OrderStatusEventDTO.builder()
+                .orderId(orderId)
+                .previousStatus(previousStatus)
+                .status(status)
+                .occurredAt(LocalDateTime.now())
+                .build()));
+    }
+
+    private void dispatch(Long userId, OrderStatusEventDTO event) {
+        Deque<OrderStatusEventDTO> recent = recentEvents.get(userId, id -> new ArrayDeque<>());
+        synchronized (recent) {
+            event.setEventId(sequence.incrementAndGet());
+            recent.addLast(event);
+            while (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            Set<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers != null) {
+                userSubscribers.forEach(subscriber -> subscriber.offer(toSse(event)));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(userSubscribers ->
+                userSubscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(OrderStatusEventDTO event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getEventId()))
+                .name(EVENT_NAME)
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.warn("File SSE pleine pour l'utilisateur {}, abonné déconnecté", userId);
+                droppedSubscribers.increment();
+                close();
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Abonné SSE de l'utilisateur {} déconnecté: {}", userId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                    userSubscribers.remove(this);
+                    return userSubscribers.isEmpty() ? null : userSubscribers;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.orders.application.service;
+
+import com.orders.domain.entity.RetryableTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Politique de nouvel essai partagée par StockReservationSaga et StockReleaseService : délai exponentiel à partir de
+ * {@code initialBackoff}, plafonné à {@code maxBackoff}, jusqu'à {@code maxAttempts} essais.
+ */
+public record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * Enregistre l'échec d'un essai sur la tâche (compteur et dernière erreur). Retourne {@code false} si les essais
+     * sont épuisés ; sinon le prochain essai est planifié et la méthode retourne {@code true}.
+     */
+    public boolean scheduleRetry(RetryableTask task, String error) {
+        int attempts = task.getAttempts() + 1;
+        task.setAttempts(attempts);
+        task.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            return false;
+        }
+        task.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+        return true;
+    }
+
+    public Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    /**
+     * Tronque un message d'erreur à la taille de la colonne {@code last_error}.
+     */
+    public static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
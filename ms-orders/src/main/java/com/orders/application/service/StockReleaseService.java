@@ -0,0 +1,227 @@
+package com.orders.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.dto.BulkStatusUpdateRequestDTO;
+import com.orders.application.dto.BulkStatusUpdateResponseDTO;
+import com.orders.application.dto.OrderItemRequestDTO;
+import com.orders.domain.entity.StockReleaseBatch;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.OutboxStatus;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.StockReleaseBatchRepository;
+import com.orders.infrastructure.client.ProductClient;
+import com.orders.infrastructure.client.ServiceTokenProvider;
+import com.orders.infrastructure.exception.InvalidJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Remise en stock des commandes annulées, y compris les commandes PENDING expirées qui sont d'abord annulées.
+ * Les commandes sont regroupées en lots dont les quantités sont agrégées par produit, puis chaque lot est envoyé à
+ * ms-products en un seul appel. Chaque commande n'est rendue qu'une fois :
+ * <ul>
+ *     <li>une commande n'entre que dans un lot, par un UPDATE conditionnel RESERVED → RELEASING ;</li>
+ *     <li>le lot est envoyé avec une clé d'opération tirée à sa création et stockée avec lui : un envoi rejoué
+ *     après une réponse perdue n'incrémente pas deux fois le stock ;</li>
+ *     <li>les commandes ne passent en RELEASED qu'une fois l'envoi confirmé, dans la même transaction que la clôture du lot.</li>
+ * </ul>
+ * Un lot en échec technique est réessayé avec un délai exponentiel, puis marqué FAILED une fois les essais épuisés :
+ * ses commandes restent en RELEASING pour une reprise manuelle.
+ */
+@Slf4j
+@Service
+public class StockReleaseService {
+
+    private static final TypeReference<List<OrderItemRequestDTO>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final OrderRepository orderRepository;
+    private final StockReleaseBatchRepository stockReleaseBatchRepository;
+    private final BulkStatusUpdateService bulkStatusUpdateService;
+    private final ProductClient productClient;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration pendingTtl;
+    private final int batchSize;
+    private final int maxBatches;
+    private final RetryPolicy retryPolicy;
+    private final Duration lease;
+
+    public StockReleaseService(
+            OrderRepository orderRepository,
+            StockReleaseBatchRepository stockReleaseBatchRepository,
+            BulkStatusUpdateService bulkStatusUpdateService,
+            ProductClient productClient,
+            ServiceTokenProvider serviceTokenProvider,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.stock-release.pending-ttl:30m}") Duration pendingTtl,
+            @Value("${orders.stock-release.batch-size:200}") int batchSize,
+            @Value("${orders.stock-release.max-batches:20}") int maxBatches,
+            @Value("${orders.stock-release.max-attempts:8}") int maxAttempts,
+            @Value("${orders.stock-release.initial-backoff:5s}") Duration initialBackoff,
+            @Value("${orders.stock-release.max-backoff:10m}") Duration maxBackoff,
+            @Value("${orders.stock-release.lease:2m}") Duration lease) {
+        this.orderRepository = orderRepository;
+        this.stockReleaseBatchRepository = stockReleaseBatchRepository;
+        this.bulkStatusUpdateService = bulkStatusUpdateService;
+        this.productClient = productClient;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.pendingTtl = pendingTtl;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.retryPolicy = new RetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stock-release.interval:30s}")
+    public void run() {
+        expirePendingOrders();
+        collectBatches();
+        dispatchPending();
+    }
+
+    /**
+     * Annule les commandes restées PENDING plus de {@code orders.stock-release.pending-ttl}. Le changement passe par
+     * BulkStatusUpdateService avec PENDING comme garde : une commande confirmée entre-temps n'est pas annulée, et
+     * l'historique, les métriques et les événements SSE sont mis à jour comme pour une annulation manuelle.
+     */
+    public void expirePendingOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(pendingTtl);
+        for (int i = 0; i < maxBatches; i++) {
+            List<Long> orderIds = orderRepository.findIdsByFilter(OrderStatus.PENDING, null, cutoff, Limit.of(batchSize));
+            if (orderIds.isEmpty()) {
+                return;
+            }
+            BulkStatusUpdateResponseDTO response = bulkStatusUpdateService.updateStatuses(BulkStatusUpdateRequestDTO.builder()
+                    .status(OrderStatus.CANCELLED)
+                    .currentStatus(OrderStatus.PENDING)
+                    .orderIds(orderIds)
+                    .build());
+            log.info("{} commandes PENDING depuis plus de {} annulées", response.getUpdatedCount(), pendingTtl);
+            meterRegistry.counter("orders.stock-release.expired").increment(response.getUpdatedCount());
+            if (orderIds.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Regroupe les commandes annulées dont le stock est encore réservé en lots de {@code orders.stock-release.batch-size}.
+     */
+    public void collectBatches() {
+        for (int i = 0; i < maxBatches; i++) {
+            List<Long> orderIds = orderRepository.findStockReleasableIds(Limit.of(batchSize));
+            if (orderIds.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> createBatch(orderIds));
+            if (orderIds.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void createBatch(List<Long> orderIds) {
+        StockReleaseBatch batch = stockReleaseBatchRepository.save(StockReleaseBatch.builder()
+                .payload("[]")
+                .operationKey("stock-release-" + UUID.randomUUID())
+                .orderCount(0)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        int claimed = orderRepository.claimStockRelease(orderIds, batch.getId(), LocalDateTime.now());
+        if (claimed == 0) {
+            // Commandes déjà rattachées à un lot par une autre instance
+            stockReleaseBatchRepository.delete(batch);
+            return;
+        }
+
+        List<OrderItemRequestDTO> items = orderRepository.sumQuantitiesByReleaseBatch(batch.getId()).stream()
+                .map(row -> new OrderItemRequestDTO(row.getProductId(), Math.toIntExact(row.getQuantity())))
+                .toList();
+        try {
+            batch.setPayload(objectMapper.writeValueAsString(items));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser le lot de remise en stock " + batch.getId(), e);
+        }
+        batch.setOrderCount(claimed);
+        stockReleaseBatchRepository.save(batch);
+        log.info("Lot de remise en stock {} constitué: {} commandes, {} produits", batch.getId(), claimed, items.size());
+    }
+
+    public void dispatchPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReleaseBatch> batches = stockReleaseBatchRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, now, Limit.of(maxBatches));
+        for (StockReleaseBatch batch : batches) {
+            if (stockReleaseBatchRepository.claim(batch.getId(), now, now.plus(lease)) == 1) {
+                process(batch);
+            }
+        }
+    }
+
+    private void process(StockReleaseBatch batch) {
+        Long batchId = batch.getId();
+        try {
+            List<OrderItemRequestDTO> items = readItems(batch);
+            if (!items.isEmpty()) {
+                productClient.releaseStock(items, serviceTokenProvider.getToken(), batch.getOperationKey());
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.markStockReleased(batchId, LocalDateTime.now());
+                batch.setStatus(OutboxStatus.DONE);
+                batch.setLastError(null);
+                stockReleaseBatchRepository.save(batch);
+            });
+            log.info("Lot de remise en stock {} envoyé: {} commandes", batchId, batch.getOrderCount());
+            count("released");
+        } catch (RuntimeException e) {
+            if (e instanceof InvalidJwtException) {
+                serviceTokenProvider.invalidate();
+            }
+            if (!retryPolicy.scheduleRetry(batch, e.getMessage())) {
+                log.error("Lot de remise en stock {} abandonné après {} essais, commandes laissées en RELEASING: {}", batchId, batch.getAttempts(), e.getMessage());
+                batch.setStatus(OutboxStatus.FAILED);
+                stockReleaseBatchRepository.save(batch);
+                count("failed");
+                return;
+            }
+            log.warn("Lot de remise en stock {} en échec (essai {}), nouvel essai dans {}: {}",
+                    batchId, batch.getAttempts(), retryPolicy.backoff(batch.getAttempts()), e.getMessage());
+            stockReleaseBatchRepository.save(batch);
+            count("retried");
+        }
+    }
+
+    private List<OrderItemRequestDTO> readItems(StockReleaseBatch batch) {
+        try {
+            return objectMapper.readValue(batch.getPayload(), ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Contenu du lot de remise en stock " + batch.getId() + " illisible", e);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("orders.stock-release.batches", "result", result).increment();
+    }
+}
@@ -0,0 +1,280 @@
+package com.orders.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.dto.OrderItemRequestDTO;
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OutboxEvent;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.OutboxEventType;
+import com.orders.domain.enums.OutboxStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OutboxEventRepository;
+import com.orders.infrastructure.exception.InvalidJwtException;
+import com.orders.infrastructure.exception.ProductOutOfStockException;
+import com.orders.infrastructure.exception.ResourceNotFoundException;
+import com.orders.infrastructure.client.ProductClient;
+import com.orders.infrastructure.client.ServiceTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saga de réservation du stock. La création d'une commande n'écrit qu'en base locale : la commande et un événement
+ * outbox dans la même transaction. Ce composant dépile ensuite les événements et réserve le stock auprès de ms-products :
+ * <ul>
+ *     <li>succès : la commande passe en stock RESERVED ;</li>
+ *     <li>refus métier (stock insuffisant, produit inconnu) : compensation, la commande est annulée ;</li>
+ *     <li>erreur technique, y compris un token refusé : nouvel essai avec un délai exponentiel.</li>
+ * </ul>
+ * Les appels utilisent le token du compte de service et la clé d'opération tirée à la création de l'événement : un
+ * essai rejoué après une réponse perdue n'est pas décompté deux fois. Un essai a pu être appliqué par ms-products sans
+ * que la réponse arrive : si les essais sont épuisés, ou si la commande est annulée après un premier envoi, l'événement
+ * devient une annulation de la réservation par sa clé, envoyée avec les mêmes essais, avant que la commande ne soit close.
+ * Une annulation dont les essais sont épuisés est relancée périodiquement.
+ */
+@Slf4j
+@Service
+public class StockReservationSaga {
+
+    private static final TypeReference<List<OrderItemRequestDTO>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ProductClient productClient;
+    private final ServiceTokenProvider serviceTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final RetryPolicy retryPolicy;
+    private final Duration lease;
+    private final Duration cancelRedriveDelay;
+    private final AtomicLong cancellingOrders = new AtomicLong();
+
+    public StockReservationSaga(
+            OutboxEventRepository outboxEventRepository,
+            OrderRepository orderRepository,
+            @Lazy OrderService orderService,
+            ProductClient productClient,
+            ServiceTokenProvider serviceTokenProvider,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${orders.outbox.batch-size:50}") int batchSize,
+            @Value("${orders.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${orders.outbox.initial-backoff:2s}") Duration initialBackoff,
+            @Value("${orders.outbox.max-backoff:5m}") Duration maxBackoff,
+            @Value("${orders.outbox.lease:1m}") Duration lease,
+            @Value("${orders.outbox.cancel-redrive-delay:30m}") Duration cancelRedriveDelay) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.productClient = productClient;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.retryPolicy = new RetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+        this.lease = lease;
+        this.cancelRedriveDelay = cancelRedriveDelay;
+        meterRegistry.gauge("orders.stock.cancelling", cancellingOrders);
+    }
+
+    /**
+     * Enregistre la demande de réservation dans la transaction de création de la commande.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Order order, List<OrderItemRequestDTO> orderItems) {
+        outboxEventRepository.save(reservationEvent(order, orderItems));
+    }
+
+    /**
+     * Construit l'événement de réservation d'une commande sans l'enregistrer (utilisé par les insertions en lot).
+     */
+    public OutboxEvent reservationEvent(Order order, List<OrderItemRequestDTO> orderItems) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(orderItems);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser les lignes de la commande " + order.getId(), e);
+        }
+        return OutboxEvent.builder()
+                .orderId(order.getId())
+                .eventType(OutboxEventType.STOCK_RESERVATION)
+                .payload(payload)
+                .operationKey("reservation-" + UUID.randomUUID())
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval:1s}")
+    public void dispatchPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, now, Limit.of(batchSize));
+        for (OutboxEvent event : events) {
+            if (outboxEventRepository.claim(event.getId(), now, now.plus(lease)) == 1) {
+                process(event);
+            }
+        }
+    }
+
+    /**
+     * Reprise des annulations abandonnées : une commande reste en stock CANCELLING tant que ms-products n'a pas
+     * confirmé l'annulation de sa réservation. Les annulations en FAILED depuis plus de
+     * {@code orders.outbox.cancel-redrive-delay} repartent pour une nouvelle série d'essais. La jauge
+     * {@code orders.stock.cancelling} est recalculée ici, jamais depuis le thread de collecte des métriques.
+     */
+    @Scheduled(fixedDelayString = "${orders.outbox.cancel-redrive-interval:5m}")
+    public void redriveFailedCancellations() {
+        LocalDateTime now = LocalDateTime.now();
+        int redriven = outboxEventRepository.redriveFailedCancellations(now, now.minus(cancelRedriveDelay));
+        if (redriven > 0) {
+            log.warn("{} annulations de réservation en échec remises en file", redriven);
+            meterRegistry.counter("orders.outbox.cancel.redriven").increment(redriven);
+        }
+        cancellingOrders.set(orderRepository.countByStockStatus(StockReservationStatus.CANCELLING));
+    }
+
+    private void process(OutboxEvent event) {
+        if (event.getEventType() == OutboxEventType.STOCK_RESERVATION_CANCEL) {
+            processCancellation(event);
+            return;
+        }
+        Long orderId = event.getOrderId();
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty() || order.get().getStatus() == OrderStatus.CANCELLED) {
+            if (event.getAttempts() == 0) {
+                log.info("Commande {} supprimée ou annulée avant la réservation, événement {} ignoré", orderId, event.getId());
+                complete(event, OutboxStatus.DONE, "Commande supprimée ou annulée");
+                count(event.getEventType(), "skipped");
+                return;
+            }
+            abandon(event, "Commande supprimée ou annulée pendant la réservation");
+            return;
+        }
+
+        try {
+            productClient.reserveStock(readItems(event), serviceTokenProvider.getToken(), event.getOperationKey());
+            transactionTemplate.executeWithoutResult(status -> {
+                orderService.markStockReserved(orderId);
+                complete(event, OutboxStatus.DONE, null);
+            });
+            log.info("Stock réservé pour la commande {}", orderId);
+            count(event.getEventType(), "reserved");
+        } catch (ProductOutOfStockException | ResourceNotFoundException e) {
+            compensate(event, e.getMessage());
+        } catch (RuntimeException e) {
+            if (!retry(event, e)) {
+                abandon(event, "Réservation abandonnée après " + event.getAttempts() + " essais: " + e.getMessage());
+            }
+        }
+    }
+
+    private void processCancellation(OutboxEvent event) {
+        Long orderId = event.getOrderId();
+        try {
+            productClient.cancelReservation(readItems(event), serviceTokenProvider.getToken(), event.getOperationKey());
+            transactionTemplate.executeWithoutResult(status -> {
+                orderService.markStockReservationCancelled(orderId);
+                complete(event, OutboxStatus.DONE, null);
+            });
+            log.info("Réservation de la commande {} annulée", orderId);
+            count(event.getEventType(), "cancelled");
+        } catch (RuntimeException e) {
+            if (!retry(event, e)) {
+                log.error("Annulation de la réservation {} de la commande {} abandonnée après {} essais, commande laissée en CANCELLING: {}",
+                        event.getOperationKey(), orderId, event.getAttempts(), e.getMessage());
+                complete(event, OutboxStatus.FAILED, e.getMessage());
+                count(event.getEventType(), "failed");
+            }
+        }
+    }
+
+    /**
+     * Erreur technique : l'événement est repris plus tard, sauf si les essais sont épuisés (retourne {@code false}).
+     * Un token refusé est oublié pour que le prochain essai en redemande un au lieu de rejouer le même.
+     */
+    private boolean retry(OutboxEvent event, RuntimeException e) {
+        if (e instanceof InvalidJwtException) {
+            serviceTokenProvider.invalidate();
+        }
+        if (!retryPolicy.scheduleRetry(event, e.getMessage())) {
+            return false;
+        }
+        log.warn("{} de la commande {} en échec (essai {}), nouvel essai dans {}: {}",
+                event.getEventType(), event.getOrderId(), event.getAttempts(), retryPolicy.backoff(event.getAttempts()), e.getMessage());
+        outboxEventRepository.save(event);
+        count(event.getEventType(), "retried");
+        return true;
+    }
+
+    /**
+     * Compensation : ms-products a refusé la réservation, la commande est annulée et l'événement clos dans la même transaction.
+     */
+    private void compensate(OutboxEvent event, String reason) {
+        log.warn("Réservation refusée pour la commande {}, annulation: {}", event.getOrderId(), reason);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.rejectStockReservation(event.getOrderId());
+            complete(event, OutboxStatus.FAILED, reason);
+        });
+        count(event.getEventType(), "rejected");
+    }
+
+    /**
+     * Abandon après un envoi dont l'issue est inconnue : la commande est annulée (stock en CANCELLING) et l'événement,
+     * avec sa clé et ses lignes, devient une annulation de la réservation, dans la même transaction.
+     */
+    private void abandon(OutboxEvent event, String reason) {
+        log.warn("Réservation de la commande {} abandonnée, annulation de la réservation {}: {}", event.getOrderId(), event.getOperationKey(), reason);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.abandonStockReservation(event.getOrderId());
+            event.setEventType(OutboxEventType.STOCK_RESERVATION_CANCEL);
+            event.setAttempts(0);
+            event.setNextAttemptAt(LocalDateTime.now());
+            event.setLastError(RetryPolicy.truncate(reason));
+            outboxEventRepository.save(event);
+        });
+        count(OutboxEventType.STOCK_RESERVATION, "abandoned");
+    }
+
+    private void complete(OutboxEvent event, OutboxStatus status, String reason) {
+        event.setStatus(status);
+        event.setLastError(RetryPolicy.truncate(reason));
+        outboxEventRepository.save(event);
+    }
+
+    private List<OrderItemRequestDTO> readItems(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Contenu de l'événement " + event.getId() + " illisible", e);
+        }
+    }
+
+    private void count(OutboxEventType type, String result) {
+        meterRegistry.counter("orders.outbox.dispatched", "type", type.name(), "result", result).increment();
+    }
+}
@@ -0,0 +1,131 @@
+package com.orders.application.service;
+
+import com.orders.application.dto.UserOrderHistoryPageDTO;
+import com.orders.application.dto.UserOrderSummaryDTO;
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.UserOrderSummary;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.UserOrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Historique des commandes par utilisateur (modèle de lecture). Les méthodes {@code on*} sont appelées par
+ * OrderService dans sa transaction : la projection ne peut pas diverger de la table {@code orders}.
+ * La lecture n'utilise que cette table, sans jointure sur les lignes de commande ni appel distant.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class UserOrderHistoryService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserOrderSummaryRepository userOrderSummaryRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(Order order) {
+        userOrderSummaryRepository.save(UserOrderSummary.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .orderDate(order.getOrderDate())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .itemCount(order.getOrderItems().size())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(Long orderId, OrderStatus status) {
+        userOrderSummaryRepository.updateStatus(orderId, status, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderDeleted(Long orderId) {
+        userOrderSummaryRepository.deleteByOrderId(orderId);
+    }
+
+    /**
+     * Rattrapage au démarrage : crée le résumé des commandes (actives ou archivées) qui n'en ont pas encore,
+     * par exemple celles d'une base antérieure au modèle de lecture. Idempotent, les résumés existants ne sont pas modifiés.
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int orders = userOrderSummaryRepository.backfillFromOrders(LocalDateTime.now());
+        int archived = userOrderSummaryRepository.backfillFromArchive(LocalDateTime.now());
+        if (orders + archived > 0) {
+            log.info("Historique des commandes rattrapé: {} commandes, {} commandes archivées", orders, archived);
+        }
+    }
+
+    /**
+     * Retourne une page de l'historique, de la commande la plus récente à la plus ancienne.
+     * Le curseur est opaque pour le client : il suffit de renvoyer le {@code nextCursor} reçu.
+     */
+    public UserOrderHistoryPageDTO getHistory(Long userId, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<UserOrderSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = userOrderSummaryRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(userId, limit);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            summaries = userOrderSummaryRepository.findPageAfter(userId, position.orderDate(), position.orderId(), limit);
+        }
+
+        boolean hasMore = summaries.size() > pageSize;
+        List<UserOrderSummary> page = hasMore ? summaries.subList(0, pageSize) : summaries;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        log.info("Historique de l'utilisateur {}: {} commandes retournées", userId, page.size());
+
+        return UserOrderHistoryPageDTO.builder()
+                .orders(page.stream().map(UserOrderHistoryService::toDTO).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static UserOrderSummaryDTO toDTO(UserOrderSummary summary) {
+        return UserOrderSummaryDTO.builder()
+                .orderId(summary.getOrderId())
+                .orderDate(summary.getOrderDate())
+                .status(summary.getStatus())
+                .totalAmount(summary.getTotalAmount())
+                .itemCount(summary.getItemCount())
+                .build();
+    }
+
+    private record Cursor(LocalDateTime orderDate, Long orderId) {
+    }
+
+    private static String encodeCursor(UserOrderSummary last) {
+        String raw = last.getOrderDate() + "|" + last.getOrderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + cursor);
+        }
+    }
+}
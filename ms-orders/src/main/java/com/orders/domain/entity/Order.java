@@ -1,6 +1,7 @@
 package com.orders.domain.entity;
 
 import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -28,8 +29,14 @@ import java.util.Set;
 @Builder
 public class Order {
 
+    /**
+     * Taille des blocs d'identifiants réservés à chaque appel de séquence (doit correspondre à l'INCREMENT BY de data.sql).
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "ID", nullable = false)
     private Long id;
 
@@ -55,6 +62,23 @@ public class Order {
     @Column(name = "SHIPPING_ADDRESS", nullable = false)
     private String shippingAddress;
 
+    @NotNull
+    @Column(name = "STOCK_STATUS", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StockReservationStatus stockStatus = StockReservationStatus.PENDING;
+
+    // Lot de remise en stock auquel la commande a été rattachée après son annulation
+    @Column(name = "RELEASE_BATCH_ID")
+    private Long releaseBatchId;
+
+    /**
+     * Verrou optimiste : incrémenté par Hibernate à chaque sauvegarde et par les requêtes UPDATE de statut.
+     */
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "CREATED_AT", nullable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,75 @@
+package com.orders.domain.entity;
+
+import com.orders.domain.enums.OutboxEventType;
+import com.orders.domain.enums.OutboxStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement à transmettre à un service distant, écrit dans la même transaction que la commande
+ * qui le produit (pattern outbox) puis traité en arrière-plan.
+ */
+@Entity
+@Data
+@Table(name = "order_outbox")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent implements RetryableTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    @NotNull
+    @Column(name = "ORDER_ID", nullable = false)
+    private Long orderId;
+
+    @NotNull
+    @Column(name = "EVENT_TYPE", nullable = false, length = 30)
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    @Lob
+    @NotNull
+    @Column(name = "PAYLOAD", nullable = false)
+    private String payload;
+
+    // Clé d'idempotence envoyée à ms-products, tirée au hasard à la création : elle reste unique après un redémarrage
+    @NotNull
+    @Column(name = "OPERATION_KEY", nullable = false, length = 64)
+    private String operationKey;
+
+    @NotNull
+    @Column(name = "STATUS", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    @NotNull
+    @Column(name = "ATTEMPTS", nullable = false)
+    private Integer attempts;
+
+    @NotNull
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "LAST_ERROR", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.orders.domain.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tâche traitée en arrière-plan et réessayée en cas d'échec technique (événement outbox, lot de remise en stock).
+ */
+public interface RetryableTask {
+
+    Integer getAttempts();
+
+    void setAttempts(Integer attempts);
+
+    void setNextAttemptAt(LocalDateTime nextAttemptAt);
+
+    void setLastError(String lastError);
+}
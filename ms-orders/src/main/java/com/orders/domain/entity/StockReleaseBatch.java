@@ -0,0 +1,70 @@
+package com.orders.domain.entity;
+
+import com.orders.domain.enums.OutboxStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lot de remise en stock : quantités agrégées par produit des commandes annulées qui y sont rattachées
+ * (Order.releaseBatchId), envoyées à ms-products en un seul appel avec la clé {@code stock-release-<id>}.
+ */
+@Entity
+@Data
+@Table(name = "stock_release_batch")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReleaseBatch implements RetryableTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    // Lignes à remettre en stock, sérialisées en JSON au moment de la constitution du lot
+    @Lob
+    @NotNull
+    @Column(name = "PAYLOAD", nullable = false)
+    private String payload;
+
+    // Clé d'idempotence envoyée à ms-products, tirée au hasard à la création : elle reste unique après un redémarrage
+    @NotNull
+    @Column(name = "OPERATION_KEY", nullable = false, length = 64)
+    private String operationKey;
+
+    @NotNull
+    @Column(name = "ORDER_COUNT", nullable = false)
+    private Integer orderCount;
+
+    @NotNull
+    @Column(name = "STATUS", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    @NotNull
+    @Column(name = "ATTEMPTS", nullable = false)
+    private Integer attempts;
+
+    @NotNull
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "LAST_ERROR", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+}
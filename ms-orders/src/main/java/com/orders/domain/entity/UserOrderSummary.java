@@ -0,0 +1,54 @@
+package com.orders.domain.entity;
+
+import com.orders.domain.enums.OrderStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Résumé d'une commande dans l'historique d'un utilisateur. Projection dénormalisée de {@link Order},
+ * maintenue dans la même transaction que la commande.
+ */
+@Entity
+@Data
+@Table(name = "user_order_history")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserOrderSummary {
+
+    @Id
+    @Column(name = "ORDER_ID", nullable = false)
+    private Long orderId;
+
+    @NotNull
+    @Column(name = "USER_ID", nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Column(name = "ORDER_DATE", nullable = false)
+    private LocalDateTime orderDate;
+
+    @NotNull
+    @Column(name = "STATUS", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @NotNull
+    @Column(name = "TOTAL_AMOUNT", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @NotNull
+    @Column(name = "ITEM_COUNT", nullable = false)
+    private Integer itemCount;
+
+    @NotNull
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+}
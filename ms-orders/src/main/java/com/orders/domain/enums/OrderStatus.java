@@ -3,6 +3,9 @@ package com.orders.domain.enums;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.orders.infrastructure.exception.InvalidOrderStatusException;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
@@ -19,4 +22,29 @@ public enum OrderStatus {
         }
     }
 
+    /**
+     * Une commande annulée ou livrée ne change plus de statut.
+     */
+    public boolean isClosed() {
+        return this == CANCELLED || this == DELIVERED;
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return target != null && !isClosed();
+    }
+
+    /**
+     * Statuts depuis lesquels une commande peut passer au statut {@code target}, utilisés dans la clause WHERE
+     * des UPDATE de statut pour que la règle soit vérifiée par la base.
+     */
+    public static Set<OrderStatus> allowedSourcesOf(OrderStatus target) {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.orders.domain.enums;
+
+public enum OutboxEventType {
+    STOCK_RESERVATION,
+    // Annulation d'une réservation abandonnée, avec la même clé d'opération que la réservation
+    STOCK_RESERVATION_CANCEL
+}
@@ -0,0 +1,7 @@
+package com.orders.domain.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,15 @@
+package com.orders.domain.enums;
+
+/**
+ * État de la réservation du stock d'une commande auprès de ms-products.
+ */
+public enum StockReservationStatus {
+    PENDING,
+    RESERVED,
+    REJECTED,
+    // Réservation abandonnée dont l'annulation auprès de ms-products n'est pas encore confirmée
+    CANCELLING,
+    // Commande annulée rattachée à un lot de remise en stock pas encore confirmé par ms-products
+    RELEASING,
+    RELEASED
+}
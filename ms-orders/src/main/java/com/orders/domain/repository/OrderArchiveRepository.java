@@ -0,0 +1,146 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OrderItem;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Accès aux tables d'archive des commandes terminées (orders_archive, order_items_archive).
+ * Les déplacements se font par requêtes ensemblistes INSERT ... SELECT puis DELETE sur un bloc d'IDs,
+ * et doivent être appelés dans une transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private static final String SELECT_ARCHIVABLE_IDS = """
+            SELECT o.id FROM orders o
+            WHERE o.status IN ('DELIVERED', 'CANCELLED')
+              AND o.updated_at < :cutoff
+              AND NOT EXISTS (SELECT 1 FROM order_outbox e WHERE e.order_id = o.id AND e.status = 'PENDING')
+              AND NOT (o.status = 'CANCELLED' AND o.stock_status IN ('RESERVED', 'RELEASING', 'CANCELLING'))
+            ORDER BY o.id
+            FETCH FIRST :limit ROWS ONLY
+            """;
+    private static final String COPY_ORDERS = """
+            INSERT INTO orders_archive (id, user_id, order_date, status, total_amount, shipping_address, stock_status, version, created_at, updated_at, archived_at)
+            SELECT id, user_id, order_date, status, total_amount, shipping_address, stock_status, version, created_at, updated_at, :archivedAt
+            FROM orders WHERE id IN (:ids)
+            """;
+    private static final String COPY_ORDER_ITEMS = """
+            INSERT INTO order_items_archive (id, order_id, product_id, product_name, quantity, unit_price, subtotal)
+            SELECT id, order_id, product_id, product_name, quantity, unit_price, subtotal
+            FROM order_items WHERE order_id IN (:ids)
+            """;
+    private static final String DELETE_ORDER_ITEMS = "DELETE FROM order_items WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS = "DELETE FROM orders WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Nombre de lignes déplacées par table lors d'un archivage.
+     */
+    public record ArchiveResult(int orders, int orderItems) {
+    }
+
+    public record StatusTotal(OrderStatus status, long orderCount, BigDecimal totalAmount) {
+    }
+
+    public record DailyTotal(LocalDate day, long orderCount, BigDecimal totalAmount) {
+    }
+
+    /**
+     * IDs des commandes livrées ou annulées dont la dernière modification précède {@code cutoff} et qui n'ont plus
+     * d'événement outbox en attente.
+     */
+    public List<Long> findArchivableIds(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE_IDS, new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit), Long.class);
+    }
+
+    public ArchiveResult archive(List<Long> orderIds) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", orderIds)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        int orders = jdbcTemplate.update(COPY_ORDERS, ids);
+        int orderItems = jdbcTemplate.update(COPY_ORDER_ITEMS, ids);
+        jdbcTemplate.update(DELETE_ORDER_ITEMS, ids);
+        jdbcTemplate.update(DELETE_ORDERS, ids);
+        return new ArchiveResult(orders, orderItems);
+    }
+
+    /**
+     * Relit une commande archivée avec ses lignes ; l'entité retournée n'est pas gérée par JPA.
+     */
+    public Optional<Order> findById(Long id) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        List<Order> orders = jdbcTemplate.query("SELECT * FROM orders_archive WHERE id = :id", params, (rs, rowNum) -> Order.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .orderDate(rs.getTimestamp("order_date").toLocalDateTime())
+                .status(OrderStatus.valueOf(rs.getString("status")))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .shippingAddress(rs.getString("shipping_address"))
+                .stockStatus(StockReservationStatus.valueOf(rs.getString("stock_status")))
+                .version(rs.getLong("version"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                .orderItems(new ArrayList<>())
+                .build());
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = orders.get(0);
+        jdbcTemplate.query("SELECT * FROM order_items_archive WHERE order_id = :id ORDER BY id", params, rs -> {
+            order.getOrderItems().add(OrderItem.builder()
+                    .id(rs.getLong("id"))
+                    .order(order)
+                    .productId(rs.getLong("product_id"))
+                    .productName(rs.getString("product_name"))
+                    .quantity(rs.getInt("quantity"))
+                    .unitPrice(rs.getBigDecimal("unit_price"))
+                    .subtotal(rs.getBigDecimal("subtotal"))
+                    .build());
+        });
+        return Optional.of(order);
+    }
+
+    public List<StatusTotal> sumTotalAmountByStatus(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+                SELECT status, COUNT(*) AS order_count, SUM(total_amount) AS total_amount
+                FROM orders_archive
+                WHERE order_date >= :from AND order_date < :to
+                GROUP BY status
+                """, period(from, to), (rs, rowNum) -> new StatusTotal(
+                OrderStatus.valueOf(rs.getString("status")), rs.getLong("order_count"), rs.getBigDecimal("total_amount")));
+    }
+
+    public List<DailyTotal> sumTotalAmountByDay(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+                SELECT CAST(order_date AS DATE) AS order_day, COUNT(*) AS order_count, SUM(total_amount) AS total_amount
+                FROM orders_archive
+                WHERE order_date >= :from AND order_date < :to
+                GROUP BY CAST(order_date AS DATE)
+                """, period(from, to), (rs, rowNum) -> new DailyTotal(
+                rs.getDate("order_day").toLocalDate(), rs.getLong("order_count"), rs.getBigDecimal("total_amount")));
+    }
+
+    private static MapSqlParameterSource period(LocalDateTime from, LocalDateTime to) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+    }
+}
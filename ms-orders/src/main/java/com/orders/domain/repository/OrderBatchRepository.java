@@ -0,0 +1,115 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OrderItem;
+import com.orders.domain.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Insertions en lot (JDBC batch) des commandes créées par l'endpoint de création groupée : une requête préparée
+ * par table, exécutée en un aller-retour par lot, au lieu d'un INSERT par ligne. Doit être appelé dans une transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER = """
+            INSERT INTO orders (id, user_id, order_date, status, total_amount, shipping_address, stock_status, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_ORDER_ITEM = """
+            INSERT INTO order_items (id, order_id, product_id, product_name, quantity, unit_price, subtotal)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_HISTORY = """
+            INSERT INTO user_order_history (order_id, user_id, order_date, status, total_amount, item_count, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_OUTBOX = """
+            INSERT INTO order_outbox (order_id, event_type, payload, operation_key, status, attempts, next_attempt_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les commandes, leurs lignes et leur résumé dans l'historique utilisateur.
+     * Les identifiants sont pris dans les mêmes séquences et avec le même découpage en blocs que les entités JPA.
+     */
+    public void insertOrders(List<Order> orders) {
+        List<OrderItem> items = new ArrayList<>();
+        orders.forEach(order -> items.addAll(order.getOrderItems()));
+        Iterator<Long> orderIds = allocateIds("orders_seq", orders.size()).iterator();
+        orders.forEach(order -> order.setId(orderIds.next()));
+        Iterator<Long> itemIds = allocateIds("order_items_seq", items.size()).iterator();
+        items.forEach(item -> item.setId(itemIds.next()));
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER, orders, orders.size(), (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, order.getUserId());
+            ps.setTimestamp(3, Timestamp.valueOf(order.getOrderDate()));
+            ps.setString(4, order.getStatus().name());
+            ps.setBigDecimal(5, order.getTotalAmount());
+            ps.setString(6, order.getShippingAddress());
+            ps.setString(7, order.getStockStatus().name());
+            ps.setTimestamp(8, Timestamp.valueOf(order.getCreatedAt()));
+            ps.setTimestamp(9, Timestamp.valueOf(order.getUpdatedAt()));
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getId());
+            ps.setLong(2, item.getOrder().getId());
+            ps.setLong(3, item.getProductId());
+            ps.setString(4, item.getProductName());
+            ps.setInt(5, item.getQuantity());
+            ps.setBigDecimal(6, item.getUnitPrice());
+            ps.setBigDecimal(7, item.getSubtotal());
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, orders, orders.size(), (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, order.getUserId());
+            ps.setTimestamp(3, Timestamp.valueOf(order.getOrderDate()));
+            ps.setString(4, order.getStatus().name());
+            ps.setBigDecimal(5, order.getTotalAmount());
+            ps.setInt(6, order.getOrderItems().size());
+            ps.setTimestamp(7, Timestamp.valueOf(order.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Chaque valeur lue dans la séquence réserve le bloc [valeur, valeur + ID_ALLOCATION_SIZE - 1], comme l'optimiseur pooled-lo.
+     */
+    private List<Long> allocateIds(String sequence, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            Long low = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+            for (int i = 0; i < Order.ID_ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(low + i);
+            }
+        }
+        return ids;
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getOrderId());
+            ps.setString(2, event.getEventType().name());
+            ps.setString(3, event.getPayload());
+            ps.setString(4, event.getOperationKey());
+            ps.setString(5, event.getStatus().name());
+            ps.setInt(6, event.getAttempts());
+            ps.setTimestamp(7, Timestamp.valueOf(event.getNextAttemptAt()));
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+    }
+}
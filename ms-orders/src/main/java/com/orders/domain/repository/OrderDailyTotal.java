@@ -0,0 +1,16 @@
+package com.orders.domain.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Nombre et montant cumulé des commandes passées un jour donné, calculés par la base.
+ */
+public interface OrderDailyTotal {
+
+    LocalDate getDay();
+
+    Long getOrderCount();
+
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,41 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne plate (commande + ligne de commande) lue par l'export. Les colonnes de la ligne de commande
+ * sont nulles pour une commande sans article.
+ */
+public interface OrderExportRow {
+
+    Long getOrderId();
+
+    Long getUserId();
+
+    LocalDateTime getOrderDate();
+
+    OrderStatus getStatus();
+
+    BigDecimal getTotalAmount();
+
+    String getShippingAddress();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getItemId();
+
+    Long getProductId();
+
+    String getProductName();
+
+    BigDecimal getUnitPrice();
+
+    Integer getQuantity();
+
+    BigDecimal getSubtotal();
+}
@@ -2,17 +2,203 @@ package com.orders.domain.repository;
 
 import com.orders.domain.entity.Order;
 import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
+    // Les listes chargent les lignes de commande dans la même requête pour éviter un SELECT par commande
+    @Override
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findAll();
+
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserId(Long userId);
 
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByStatus(OrderStatus status);
 
-    List<Order> findByOrderDateBetween(LocalDateTime startOfDay, LocalDateTime endOfDay);
+    long countByStockStatus(StockReservationStatus stockStatus);
+
+    @Query("""
+            SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount
+            FROM Order o
+            WHERE o.orderDate >= :from AND o.orderDate < :to
+            GROUP BY o.status
+            """)
+    List<OrderStatusTotal> sumTotalAmountByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            SELECT extract(date from o.orderDate) AS day, COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount
+            FROM Order o
+            WHERE o.orderDate >= :from AND o.orderDate < :to
+            GROUP BY extract(date from o.orderDate)
+            ORDER BY extract(date from o.orderDate)
+            """)
+    List<OrderDailyTotal> sumTotalAmountByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Curseur en lecture seule pour l'export : une ligne par article, triée par commande, sans entité gérée
+     * pour que le contexte de persistance ne grossisse pas. Doit être consommé dans une transaction puis fermé.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT o.id AS orderId, o.userId AS userId, o.orderDate AS orderDate, o.status AS status,
+                   o.totalAmount AS totalAmount, o.shippingAddress AS shippingAddress,
+                   o.createdAt AS createdAt, o.updatedAt AS updatedAt,
+                   i.id AS itemId, i.productId AS productId, i.productName AS productName,
+                   i.unitPrice AS unitPrice, i.quantity AS quantity, i.subtotal AS subtotal
+            FROM Order o LEFT JOIN o.orderItems i
+            WHERE (:status IS NULL OR o.status = :status)
+              AND (:from IS NULL OR o.orderDate >= :from)
+              AND (:to IS NULL OR o.orderDate < :to)
+            ORDER BY o.id, i.id
+            """)
+    Stream<OrderExportRow> streamForExport(@Param("status") OrderStatus status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @Query("SELECT o.id AS id, o.userId AS userId, o.status AS status, o.orderDate AS orderDate, o.totalAmount AS totalAmount, o.version AS version FROM Order o WHERE o.id = :id")
+    Optional<OrderStatusRow> findStatusRow(@Param("id") Long id);
+
+    @Query("SELECT o.id AS id, o.userId AS userId, o.status AS status, o.orderDate AS orderDate, o.totalAmount AS totalAmount, o.version AS version FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusRow> findStatusRows(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE (:status IS NULL OR o.status = :status)
+              AND (:from IS NULL OR o.orderDate >= :from)
+              AND (:to IS NULL OR o.orderDate < :to)
+            ORDER BY o.id
+            """)
+    List<Long> findIdsByFilter(@Param("status") OrderStatus status,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               Limit limit);
+
+    /**
+     * Changement de statut ensembliste : seules les commandes dont le statut courant fait partie de {@code sources}
+     * sont modifiées, les commandes annulées ou livrées sont donc exclues par la clause WHERE.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.id IN :ids
+              AND o.status IN :sources
+            """)
+    int updateStatuses(@Param("ids") Collection<Long> ids,
+                       @Param("status") OrderStatus status,
+                       @Param("sources") Collection<OrderStatus> sources,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Changement de statut d'une commande en une requête : la transition n'est appliquée que si le statut courant
+     * fait partie de {@code sources} et si la version lue n'a pas changé entre-temps. Retourne le nombre de lignes modifiées.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.id = :id
+              AND o.version = :version
+              AND o.status IN :sources
+            """)
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") OrderStatus status,
+                     @Param("sources") Collection<OrderStatus> sources,
+                     @Param("version") Long version,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Issue négative de la saga de réservation : la commande est annulée et son statut de stock passe à
+     * {@code stockStatus}, seulement si elle est encore PENDING à la version lue. Retourne le nombre de lignes modifiées.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.status = com.orders.domain.enums.OrderStatus.CANCELLED, o.stockStatus = :stockStatus,
+                               o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.id = :id
+              AND o.version = :version
+              AND o.status = com.orders.domain.enums.OrderStatus.PENDING
+            """)
+    int cancelPending(@Param("id") Long id,
+                      @Param("stockStatus") StockReservationStatus stockStatus,
+                      @Param("version") Long version,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Transition du statut de stock d'une commande, appliquée seulement depuis {@code expected}.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.stockStatus = :stockStatus, o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.id = :id
+              AND o.stockStatus = :expected
+            """)
+    int updateStockStatus(@Param("id") Long id,
+                          @Param("expected") StockReservationStatus expected,
+                          @Param("stockStatus") StockReservationStatus stockStatus,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Commandes annulées dont le stock réservé n'a pas encore été rendu à ms-products.
+     */
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.status = com.orders.domain.enums.OrderStatus.CANCELLED
+              AND o.stockStatus = com.orders.domain.enums.StockReservationStatus.RESERVED
+            ORDER BY o.id
+            """)
+    List<Long> findStockReleasableIds(Limit limit);
+
+    /**
+     * Rattache des commandes à un lot de remise en stock. La condition sur RESERVED garantit qu'une commande n'entre
+     * que dans un seul lot, même si deux instances collectent en même temps. Retourne le nombre de commandes rattachées.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.stockStatus = com.orders.domain.enums.StockReservationStatus.RELEASING,
+                               o.releaseBatchId = :batchId, o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.id IN :ids
+              AND o.status = com.orders.domain.enums.OrderStatus.CANCELLED
+              AND o.stockStatus = com.orders.domain.enums.StockReservationStatus.RESERVED
+            """)
+    int claimStockRelease(@Param("ids") Collection<Long> ids,
+                          @Param("batchId") Long batchId,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("""
+            SELECT i.productId AS productId, SUM(i.quantity) AS quantity
+            FROM OrderItem i
+            WHERE i.order.releaseBatchId = :batchId
+            GROUP BY i.productId
+            ORDER BY i.productId
+            """)
+    List<ProductQuantity> sumQuantitiesByReleaseBatch(@Param("batchId") Long batchId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.stockStatus = com.orders.domain.enums.StockReservationStatus.RELEASED,
+                               o.updatedAt = :updatedAt, o.version = o.version + 1
+            WHERE o.releaseBatchId = :batchId
+              AND o.stockStatus = com.orders.domain.enums.StockReservationStatus.RELEASING
+            """)
+    int markStockReleased(@Param("batchId") Long batchId, @Param("updatedAt") LocalDateTime updatedAt);
 }
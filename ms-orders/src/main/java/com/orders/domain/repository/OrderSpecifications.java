@@ -0,0 +1,79 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OrderItem;
+import com.orders.domain.enums.OrderStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Critères de recherche des commandes, combinables entre eux. Un critère null ou vide n'ajoute aucun prédicat,
+ * pour que la requête générée ne contienne que les colonnes réellement filtrées (et couvertes par les index de data.sql).
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> hasUserId(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<Order> hasStatusIn(Collection<OrderStatus> statuses) {
+        return (root, query, cb) -> statuses == null || statuses.isEmpty() ? null : root.get("status").in(statuses);
+    }
+
+    /**
+     * Période [from, to) sur la date de commande.
+     */
+    public static Specification<Order> orderedBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) {
+                return null;
+            }
+            if (from == null) {
+                return cb.lessThan(root.get("orderDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get("orderDate"), from), cb.lessThan(root.get("orderDate"), to));
+        };
+    }
+
+    public static Specification<Order> totalAmountBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> {
+            if (min == null && max == null) {
+                return null;
+            }
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.get("totalAmount"), max);
+            }
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(root.get("totalAmount"), min);
+            }
+            return cb.between(root.get("totalAmount"), min, max);
+        };
+    }
+
+    /**
+     * Commandes contenant au moins une ligne du produit, par sous-requête EXISTS pour ne pas dupliquer les commandes.
+     */
+    public static Specification<Order> containsProduct(Long productId) {
+        return (root, query, cb) -> {
+            if (productId == null) {
+                return null;
+            }
+            Subquery<Long> items = query.subquery(Long.class);
+            Root<OrderItem> item = items.from(OrderItem.class);
+            items.select(item.get("id"))
+                    .where(cb.equal(item.get("order"), root), cb.equal(item.get("productId"), productId));
+            return cb.exists(items);
+        };
+    }
+}
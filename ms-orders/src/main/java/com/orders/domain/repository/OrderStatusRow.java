@@ -0,0 +1,24 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Colonnes d'une commande utiles à un changement de statut, sans charger l'entité ni ses lignes.
+ */
+public interface OrderStatusRow {
+
+    Long getId();
+
+    Long getUserId();
+
+    OrderStatus getStatus();
+
+    LocalDateTime getOrderDate();
+
+    BigDecimal getTotalAmount();
+
+    Long getVersion();
+}
@@ -0,0 +1,17 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Nombre et montant cumulé des commandes d'un statut, calculés par la base.
+ */
+public interface OrderStatusTotal {
+
+    OrderStatus getStatus();
+
+    Long getOrderCount();
+
+    BigDecimal getTotalAmount();
+}
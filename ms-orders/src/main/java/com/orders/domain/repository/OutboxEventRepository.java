@@ -0,0 +1,46 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.OutboxEvent;
+import com.orders.domain.enums.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, LocalDateTime now, Limit limit);
+
+    /**
+     * Réserve un événement pour un traitement en repoussant sa prochaine échéance. Retourne 0 si une autre instance
+     * l'a déjà pris : une seule instance traite un événement à un instant donné. Le compteur d'essais est incrémenté
+     * avant l'appel distant : un événement à 0 essai n'a jamais été envoyé, même si une instance s'est arrêtée en plein appel.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1
+            WHERE e.id = :id AND e.status = com.orders.domain.enums.OutboxStatus.PENDING AND e.nextAttemptAt <= :now
+            """)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Remet en file les annulations de réservation passées en FAILED avant {@code failedBefore}, avec un compteur
+     * d'essais à 0. Retourne le nombre d'événements relancés.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE OutboxEvent e SET e.status = com.orders.domain.enums.OutboxStatus.PENDING, e.attempts = 0,
+                                     e.nextAttemptAt = :now, e.updatedAt = :now
+            WHERE e.status = com.orders.domain.enums.OutboxStatus.FAILED
+              AND e.eventType = com.orders.domain.enums.OutboxEventType.STOCK_RESERVATION_CANCEL
+              AND e.updatedAt < :failedBefore
+            """)
+    int redriveFailedCancellations(@Param("now") LocalDateTime now, @Param("failedBefore") LocalDateTime failedBefore);
+}
@@ -0,0 +1,11 @@
+package com.orders.domain.repository;
+
+/**
+ * Quantité cumulée d'un produit sur plusieurs lignes de commande, calculée par la base.
+ */
+public interface ProductQuantity {
+
+    Long getProductId();
+
+    Long getQuantity();
+}
@@ -0,0 +1,29 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.StockReleaseBatch;
+import com.orders.domain.enums.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReleaseBatchRepository extends JpaRepository<StockReleaseBatch, Long> {
+
+    List<StockReleaseBatch> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, LocalDateTime now, Limit limit);
+
+    /**
+     * Réserve un lot pour un envoi en repoussant sa prochaine échéance. Retourne 0 si une autre instance l'a déjà pris.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE StockReleaseBatch b SET b.nextAttemptAt = :leaseUntil
+            WHERE b.id = :id AND b.status = com.orders.domain.enums.OutboxStatus.PENDING AND b.nextAttemptAt <= :now
+            """)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -0,0 +1,64 @@
+package com.orders.domain.repository;
+
+import com.orders.domain.entity.UserOrderSummary;
+import com.orders.domain.enums.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+
+    List<UserOrderSummary> findByUserIdOrderByOrderDateDescOrderIdDesc(Long userId, Limit limit);
+
+    /**
+     * Page suivante par clé (keyset) : les résumés strictement après le curseur (orderDate, orderId) dans l'ordre décroissant.
+     */
+    @Query("""
+            SELECT s FROM UserOrderSummary s
+            WHERE s.userId = :userId
+              AND (s.orderDate < :orderDate OR (s.orderDate = :orderDate AND s.orderId < :orderId))
+            ORDER BY s.orderDate DESC, s.orderId DESC
+            """)
+    List<UserOrderSummary> findPageAfter(@Param("userId") Long userId,
+                                         @Param("orderDate") LocalDateTime orderDate,
+                                         @Param("orderId") Long orderId,
+                                         Limit limit);
+
+    @Modifying
+    @Query("UPDATE UserOrderSummary s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.orderId = :orderId")
+    int updateStatus(@Param("orderId") Long orderId, @Param("status") OrderStatus status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE UserOrderSummary s SET s.status = :status, s.updatedAt = :updatedAt WHERE s.orderId IN :orderIds")
+    int updateStatuses(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM UserOrderSummary s WHERE s.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_order_history (order_id, user_id, order_date, status, total_amount, item_count, updated_at)
+            SELECT o.id, o.user_id, o.order_date, o.status, o.total_amount,
+                   (SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id), :updatedAt
+            FROM orders o
+            WHERE NOT EXISTS (SELECT 1 FROM user_order_history h WHERE h.order_id = o.id)
+            """)
+    int backfillFromOrders(@Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_order_history (order_id, user_id, order_date, status, total_amount, item_count, updated_at)
+            SELECT o.id, o.user_id, o.order_date, o.status, o.total_amount,
+                   (SELECT COUNT(*) FROM order_items_archive i WHERE i.order_id = o.id), :updatedAt
+            FROM orders_archive o
+            WHERE NOT EXISTS (SELECT 1 FROM user_order_history h WHERE h.order_id = o.id)
+            """)
+    int backfillFromArchive(@Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,17 @@
+package com.orders.infrastructure.client;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * Indique aux circuit breakers quelles erreurs comptent comme des pannes du service distant :
+ * une réponse 4xx (produit inconnu, stock insuffisant, JWT refusé) prouve que le service répond.
+ */
+public class DownstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return !(throwable instanceof WebClientResponseException e && e.getStatusCode().is4xxClientError());
+    }
+}
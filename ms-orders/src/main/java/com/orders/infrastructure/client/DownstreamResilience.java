@@ -0,0 +1,47 @@
+package com.orders.infrastructure.client;
+
+import com.orders.infrastructure.exception.ExternalServiceDownException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Protège les appels vers un service distant par un bulkhead (nombre d'appels simultanés borné)
+ * et un circuit breaker (échec immédiat tant que le service est jugé défaillant).
+ * L'état des breakers est exporté par Resilience4j ; les rejets sont comptés dans orders.downstream.rejected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownstreamResilience {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public <T> Mono<T> protect(String service, Mono<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(service);
+        return call
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(CallNotPermittedException.class, e -> reject(service, "circuit-open"))
+                .onErrorMap(BulkheadFullException.class, e -> reject(service, "bulkhead-full"));
+    }
+
+    private ExternalServiceDownException reject(String service, String reason) {
+        log.warn("Appel vers {} rejeté: {}", service, reason);
+        meterRegistry.counter("orders.downstream.rejected", "service", service, "reason", reason).increment();
+        return new ExternalServiceDownException(String.format("Le service %s est temporairement indisponible (%s)", service, reason));
+    }
+}
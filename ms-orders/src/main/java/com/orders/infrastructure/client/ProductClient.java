@@ -1,39 +1,64 @@
 package com.orders.infrastructure.client;
 
+import com.orders.application.dto.OrderItemRequestDTO;
 import com.orders.application.dto.OrderedProductDTO;
+import com.orders.application.dto.OrderedProductsDTO;
 import com.orders.infrastructure.exception.ExternalServiceDownException;
+import com.orders.infrastructure.exception.ForbiddenJwtException;
 import com.orders.infrastructure.exception.InvalidJwtException;
+import com.orders.infrastructure.exception.ProductOutOfStockException;
 import com.orders.infrastructure.exception.ResourceNotFoundException;
 import com.orders.infrastructure.health.ExternalServiceChecker;
-import lombok.AllArgsConstructor;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.beans.factory.annotation.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Component
 public class ProductClient {
 
+    private static final String SERVICE_NAME = "product-service";
+
     private final WebClient webClient;
     private final ExternalServiceChecker externalServiceChecker;
+    private final DownstreamResilience downstreamResilience;
+    private final ProductSnapshotCache productSnapshotCache;
     private final String baseProductServiceUrl;
     private final String productServiceApi;
+    private final int batchSize;
+    private final int maxConcurrency;
 
     public ProductClient(
             WebClient webClient,
             ExternalServiceChecker externalServiceChecker,
-            @Value("${PRODUCT_SERVICE_URL}") String baseProductServiceUrl) {
+            DownstreamResilience downstreamResilience,
+            ProductSnapshotCache productSnapshotCache,
+            @Value("${PRODUCT_SERVICE_URL}") String baseProductServiceUrl,
+            @Value("${orders.downstream.product-batch-size:50}") int batchSize,
+            @Value("${orders.downstream.max-concurrency:4}") int maxConcurrency) {
         this.webClient = webClient;
         this.externalServiceChecker = externalServiceChecker;
+        this.downstreamResilience = downstreamResilience;
+        this.productSnapshotCache = productSnapshotCache;
         this.baseProductServiceUrl = Objects.requireNonNullElse(baseProductServiceUrl, "http://localhost:8082");
         this.productServiceApi = baseProductServiceUrl + "/api/v1/products";
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        externalServiceChecker.register(this.baseProductServiceUrl);
     }
 
     private String getToken() {
@@ -44,65 +69,179 @@ public class ProductClient {
         return null;
     }
 
-    public boolean productNotExist(Long productId) {
+    private Throwable mapError(Throwable e, String resourceName, String value) {
+        if (e instanceof WebClientResponseException ex && ex.getStatusCode().value() == 401) {
+            return new InvalidJwtException(SERVICE_NAME);
+        }
+        if (e instanceof WebClientRequestException) {
+            return new ExternalServiceDownException(SERVICE_NAME, resourceName, value);
+        }
+        return e;
+    }
+
+    /**
+     * Remonte le résultat d'un appel réel à l'ExternalServiceChecker : une réponse 4xx prouve que le service répond,
+     * une erreur réseau ou 5xx le marque indisponible. L'appel passe ensuite par le circuit breaker et le bulkhead.
+     */
+    private <T> Mono<T> track(Mono<T> call) {
+        return downstreamResilience.protect(SERVICE_NAME, call
+                .doOnSuccess(result -> externalServiceChecker.recordSuccess(baseProductServiceUrl))
+                .doOnError(e -> {
+                    if (e instanceof WebClientResponseException ex && ex.getStatusCode().is4xxClientError()) {
+                        externalServiceChecker.recordSuccess(baseProductServiceUrl);
+                    } else {
+                        externalServiceChecker.recordFailure(baseProductServiceUrl);
+                    }
+                }));
+    }
+
+    /**
+     * Récupère les produits demandés sans bloquer : les produits présents dans le cache local sont servis directement,
+     * les autres IDs sont découpés en lots interrogés en parallèle, avec au plus {@code maxConcurrency}
+     * appels simultanés vers ms-products. Le token est lu à l'assemblage, tant que l'on est encore sur le thread de la requête.
+     */
+    public Mono<OrderedProductsDTO> getProductsAsync(Collection<Long> productIds) {
+        Map<Long, OrderedProductDTO> cached = productSnapshotCache.getAll(productIds);
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        for (Long productId : new LinkedHashSet<>(productIds)) {
+            if (cached.containsKey(productId)) {
+                continue;
+            }
+            current.add(productId);
+            if (current.size() == batchSize) {
+                batches.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        if (batches.isEmpty()) {
+            return Mono.just(new OrderedProductsDTO(new ArrayList<>(cached.values()), new ArrayList<>()));
+        }
+        if (!externalServiceChecker.checkService(baseProductServiceUrl)) {
+            return Mono.error(new ExternalServiceDownException(SERVICE_NAME, "productIds", productIds.toString()));
+        }
+        String token = getToken();
+
+        return Flux.fromIterable(batches)
+                .flatMap(batch -> fetchProducts(batch, token), maxConcurrency)
+                .doOnNext(part -> {
+                    productSnapshotCache.refreshAll(part.getProducts());
+                    part.getMissingIds().forEach(productSnapshotCache::invalidate);
+                })
+                .reduceWith(() -> new OrderedProductsDTO(new ArrayList<>(cached.values()), new ArrayList<>()), (result, part) -> {
+                    result.getProducts().addAll(part.getProducts());
+                    result.getMissingIds().addAll(part.getMissingIds());
+                    return result;
+                });
+    }
+
+    private Mono<OrderedProductsDTO> fetchProducts(List<Long> productIds, String token) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return track(webClient.get()
+                .uri(productServiceApi + "?ids={ids}", ids)
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(OrderedProductsDTO.class))
+                .onErrorMap(e -> mapError(e, "productIds", ids));
+    }
+
+    /**
+     * Réserve le stock des lignes d'une commande en une seule opération. Appelé en arrière-plan par
+     * StockReservationSaga avec le token du compte de service, et la clé d'idempotence permet de rejouer l'appel
+     * sans décrémenter deux fois le stock.
+     */
+    public List<OrderedProductDTO> reserveStock(List<OrderItemRequestDTO> orderItems, String token, String idempotencyKey) {
+        if (!externalServiceChecker.checkService(baseProductServiceUrl)) {
+            throw new ExternalServiceDownException(SERVICE_NAME, "reservation", idempotencyKey);
+        }
         try {
-            return !Boolean.TRUE.equals(webClient.get()
-                    .uri(productServiceApi + "/{id}", productId)
-                    .header("Authorization", "Bearer " + getToken())
+            return track(webClient.post()
+                    .uri(productServiceApi + "/stock/reservations")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .bodyValue(orderItems)
                     .retrieve()
-                    .toBodilessEntity()
-                    .map(res -> res.getStatusCode().is2xxSuccessful())
-                    .onErrorReturn(false)
-                    .block());
+                    .bodyToFlux(OrderedProductDTO.class)
+                    .collectList()
+                    .doOnNext(productSnapshotCache::refreshAll))
+                    .onErrorMap(WebClientRequestException.class, e -> mapError(e, "reservation", idempotencyKey))
+                    .block();
         } catch (WebClientResponseException e) {
             if (e.getStatusCode().value() == 401) {
-                throw new InvalidJwtException("product-service");
+                throw new InvalidJwtException(SERVICE_NAME);
+            }
+            if (e.getStatusCode().value() == 403) {
+                throw new ForbiddenJwtException(SERVICE_NAME);
+            }
+            if (e.getStatusCode().value() == 404) {
+                throw new ResourceNotFoundException("Product reservation", "key", idempotencyKey);
+            }
+            if (e.getStatusCode().value() == 409) {
+                throw new ProductOutOfStockException("Stock insuffisant pour au moins un produit de la commande, aucune ligne n'a été réservée");
             }
             throw e;
         }
     }
 
-    public OrderedProductDTO getProduct(Long productId) {
+    /**
+     * Remet en stock un lot de quantités agrégées par produit. Appelé en arrière-plan par StockReleaseService avec le
+     * token du compte de service ; la clé d'idempotence du lot empêche un rejeu d'incrémenter deux fois le stock.
+     */
+    public List<OrderedProductDTO> releaseStock(List<OrderItemRequestDTO> items, String token, String idempotencyKey) {
         if (!externalServiceChecker.checkService(baseProductServiceUrl)) {
-            throw new ExternalServiceDownException("product-service", "productId", productId.toString());
-        }
-        if (productNotExist(productId)) {
-            throw new ResourceNotFoundException("Product", "id", productId);
+            throw new ExternalServiceDownException(SERVICE_NAME, "release", idempotencyKey);
         }
         try {
-            return webClient.get()
-                    .uri(productServiceApi + "/{id}", productId)
-                    .header("Authorization", "Bearer " + getToken())
+            return track(webClient.post()
+                    .uri(productServiceApi + "/stock/releases")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .bodyValue(items)
                     .retrieve()
-                    .bodyToMono(OrderedProductDTO.class)
+                    .bodyToFlux(OrderedProductDTO.class)
+                    .collectList()
+                    .doOnNext(productSnapshotCache::refreshAll))
+                    .onErrorMap(WebClientRequestException.class, e -> mapError(e, "release", idempotencyKey))
                     .block();
         } catch (WebClientResponseException e) {
             if (e.getStatusCode().value() == 401) {
-                throw new InvalidJwtException("product-service");
+                throw new InvalidJwtException(SERVICE_NAME);
+            }
+            if (e.getStatusCode().value() == 403) {
+                throw new ForbiddenJwtException(SERVICE_NAME);
             }
             throw e;
         }
     }
 
-    public OrderedProductDTO updateStock(Long productId, Integer quantity) {
+    /**
+     * Annule une réservation par sa clé d'opération. Si ms-products ne l'a jamais appliquée, la clé est neutralisée :
+     * un essai de réservation arrivé en retard ne décrémentera plus le stock.
+     */
+    public List<OrderedProductDTO> cancelReservation(List<OrderItemRequestDTO> orderItems, String token, String reservationKey) {
         if (!externalServiceChecker.checkService(baseProductServiceUrl)) {
-            throw new ExternalServiceDownException("product-service", "productId", productId.toString());
-        }
-        if (productNotExist(productId)) {
-            throw new ResourceNotFoundException("Product", "id", productId);
+            throw new ExternalServiceDownException(SERVICE_NAME, "reservationCancellation", reservationKey);
         }
-        Map<String, Integer> body = Map.of("quantity", quantity);
         try {
-            return webClient.patch()
-                    .uri(productServiceApi + "/{id}/stock", productId)
-                    .header("Authorization", "Bearer " + getToken())
-                    .bodyValue(body)
+            return track(webClient.post()
+                    .uri(productServiceApi + "/stock/reservations/{key}/cancellation", reservationKey)
+                    .header("Authorization", "Bearer " + token)
+                    .bodyValue(orderItems)
                     .retrieve()
-                    .bodyToMono(OrderedProductDTO.class)
+                    .bodyToFlux(OrderedProductDTO.class)
+                    .collectList()
+                    .doOnNext(productSnapshotCache::refreshAll))
+                    .onErrorMap(WebClientRequestException.class, e -> mapError(e, "reservationCancellation", reservationKey))
                     .block();
         } catch (WebClientResponseException e) {
             if (e.getStatusCode().value() == 401) {
-                throw new InvalidJwtException("product-service");
+                throw new InvalidJwtException(SERVICE_NAME);
+            }
+            if (e.getStatusCode().value() == 403) {
+                throw new ForbiddenJwtException(SERVICE_NAME);
             }
             throw e;
         }
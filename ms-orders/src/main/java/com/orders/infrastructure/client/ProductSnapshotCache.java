@@ -0,0 +1,70 @@
+package com.orders.infrastructure.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orders.application.dto.OrderedProductDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cache local des fiches produit (nom, prix, stock indicatif) utilisées par ms-orders.
+ * Le prix et le nom sont servis depuis ce cache ; la réservation du stock reste toujours faite par ms-products.
+ * Une fiche n'est remplacée que par une version au moins aussi récente (champ updatedAt de ms-products).
+ */
+@Slf4j
+@Component
+public class ProductSnapshotCache {
+
+    private final Cache<Long, OrderedProductDTO> snapshots;
+
+    public ProductSnapshotCache(
+            MeterRegistry meterRegistry,
+            @Value("${orders.product-cache.ttl:5m}") Duration ttl,
+            @Value("${orders.product-cache.max-size:10000}") long maxSize) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "orders.product-snapshots");
+    }
+
+    public Map<Long, OrderedProductDTO> getAll(Collection<Long> productIds) {
+        return snapshots.getAllPresent(productIds);
+    }
+
+    public void refresh(OrderedProductDTO product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        snapshots.asMap().merge(product.getId(), product, (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+    }
+
+    public void refreshAll(Collection<OrderedProductDTO> products) {
+        products.forEach(this::refresh);
+    }
+
+    public void invalidate(Long productId) {
+        log.debug("Invalidation du produit {} dans le cache", productId);
+        snapshots.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidation de tout le cache produits");
+        snapshots.invalidateAll();
+    }
+
+    private boolean isNewer(OrderedProductDTO candidate, OrderedProductDTO current) {
+        if (candidate.getUpdatedAt() == null || current.getUpdatedAt() == null) {
+            return true;
+        }
+        return !candidate.getUpdatedAt().isBefore(current.getUpdatedAt());
+    }
+}
@@ -0,0 +1,78 @@
+package com.orders.infrastructure.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Token du compte de service de ms-orders, utilisé par les traitements en arrière-plan qui n'ont pas de requête
+ * utilisateur d'origine. Le token est obtenu auprès de ms-membership puis gardé jusqu'à peu avant son expiration.
+ * Sans compte configuré, l'application ne démarre pas : la réservation et la remise en stock en dépendent.
+ */
+@Slf4j
+@Component
+public class ServiceTokenProvider {
+
+    private static final String SERVICE_NAME = "user-service";
+
+    private final WebClient webClient;
+    private final DownstreamResilience downstreamResilience;
+    private final String loginUrl;
+    private final String email;
+    private final Duration refreshMargin;
+
+    private String token;
+    private Instant expiresAt = Instant.MIN;
+
+    public ServiceTokenProvider(
+            WebClient webClient,
+            DownstreamResilience downstreamResilience,
+            @Value("${USER_SERVICE_URL}") String baseUserServiceUrl,
+            @Value("${orders.service-account.email:}") String email,
+            @Value("${orders.service-account.refresh-margin:1m}") Duration refreshMargin) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalStateException("Compte de service non configuré (orders.service-account.email)");
+        }
+        this.webClient = webClient;
+        this.downstreamResilience = downstreamResilience;
+        this.loginUrl = Objects.requireNonNullElse(baseUserServiceUrl, "http://localhost:8081") + "/api/v1/auth/login";
+        this.email = email;
+        this.refreshMargin = refreshMargin;
+    }
+
+    public synchronized String getToken() {
+        if (token != null && Instant.now().isBefore(expiresAt)) {
+            return token;
+        }
+        LoginResponse response = downstreamResilience.protect(SERVICE_NAME, webClient.post()
+                        .uri(loginUrl)
+                        .bodyValue(Map.of("email", email))
+                        .retrieve()
+                        .bodyToMono(LoginResponse.class))
+                .block();
+        if (response == null || response.token() == null) {
+            throw new IllegalStateException("Aucun token renvoyé pour le compte de service");
+        }
+        token = response.token();
+        expiresAt = Instant.now().plusSeconds(response.expiresIn()).minus(refreshMargin);
+        log.debug("Token du compte de service renouvelé, valable jusqu'à {}", expiresAt);
+        return token;
+    }
+
+    /**
+     * Oublie le token courant, par exemple après un 401 : le prochain appel en redemande un.
+     */
+    public synchronized void invalidate() {
+        token = null;
+        expiresAt = Instant.MIN;
+    }
+
+    private record LoginResponse(String token, long expiresIn) {
+    }
+}
@@ -1,38 +1,76 @@
 package com.orders.infrastructure.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.orders.infrastructure.exception.ExternalServiceDownException;
 import com.orders.infrastructure.exception.InvalidJwtException;
 import com.orders.infrastructure.health.ExternalServiceChecker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Objects;
 
 @Component
 @Slf4j
 public class UserClient {
 
+    private static final String SERVICE_NAME = "user-service";
+
     private final WebClient webClient;
     private final ExternalServiceChecker externalServiceChecker;
+    private final DownstreamResilience downstreamResilience;
     private final String baseUserServiceUrl;
     private final String userServiceApi;
+    private final Cache<Long, Boolean> userExistenceCache;
 
     public UserClient(
             WebClient webClient,
             ExternalServiceChecker externalServiceChecker,
-            @Value("${USER_SERVICE_URL}") String baseUserServiceUrl
+            DownstreamResilience downstreamResilience,
+            MeterRegistry meterRegistry,
+            @Value("${USER_SERVICE_URL}") String baseUserServiceUrl,
+            @Value("${orders.user-cache.ttl:10m}") Duration ttl,
+            @Value("${orders.user-cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${orders.user-cache.max-size:10000}") long maxSize
     ) {
         this.webClient = webClient;
         this.externalServiceChecker = externalServiceChecker;
+        this.downstreamResilience = downstreamResilience;
         this.baseUserServiceUrl = Objects.requireNonNullElse(baseUserServiceUrl, "http://localhost:8081");
         this.userServiceApi = baseUserServiceUrl + "/api/v1/users";
+        externalServiceChecker.register(this.baseUserServiceUrl);
+        this.userExistenceCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Boolean exists, long currentTime) {
+                        return (exists ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return (exists ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userExistenceCache, "orders.user-existence");
     }
 
     private String getToken() {
@@ -44,23 +82,52 @@ public class UserClient {
     }
 
     public boolean isUserExist(Long userId) {
-        if (!externalServiceChecker.checkService(baseUserServiceUrl)) {
-            throw new ExternalServiceDownException("user-service", "userId", userId.toString());
+        return Boolean.TRUE.equals(isUserExistAsync(userId).block());
+    }
+
+    /**
+     * Variante non bloquante de {@link #isUserExist(Long)}, composable avec les appels vers ms-products.
+     * Le résultat est mis en cache : un utilisateur existant pour orders.user-cache.ttl, un utilisateur
+     * inconnu (404) pour orders.user-cache.negative-ttl. Les erreurs techniques ne sont jamais mises en cache.
+     */
+    public Mono<Boolean> isUserExistAsync(Long userId) {
+        Boolean cached = userExistenceCache.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
         }
-        try {
-            return Boolean.TRUE.equals(webClient.get()
-                    .uri(userServiceApi + "/{id}", userId)
-                    .header("Authorization", "Bearer " + getToken())
-                    .retrieve()
-                    .toBodilessEntity()
-                    .map(res -> res.getStatusCode().is2xxSuccessful())
-                    .onErrorReturn(false)
-                    .block());
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode().value() == 401) {
-                throw new InvalidJwtException("user-service");
-            }
-            throw e;
+        if (!externalServiceChecker.checkService(baseUserServiceUrl)) {
+            return Mono.error(new ExternalServiceDownException(SERVICE_NAME, "userId", userId.toString()));
         }
+        return downstreamResilience.protect(SERVICE_NAME, webClient.get()
+                .uri(userServiceApi + "/{id}", userId)
+                .header("Authorization", "Bearer " + getToken())
+                .retrieve()
+                .toBodilessEntity()
+                .map(res -> res.getStatusCode().is2xxSuccessful())
+                .doOnNext(exists -> {
+                    if (exists) {
+                        userExistenceCache.put(userId, true);
+                    }
+                })
+                .doOnSuccess(exists -> externalServiceChecker.recordSuccess(baseUserServiceUrl))
+                .doOnError(e -> {
+                    if (e instanceof WebClientResponseException ex && ex.getStatusCode().is4xxClientError()) {
+                        externalServiceChecker.recordSuccess(baseUserServiceUrl);
+                    } else {
+                        externalServiceChecker.recordFailure(baseUserServiceUrl);
+                    }
+                }))
+                .onErrorResume(e -> {
+                    if (e instanceof ExternalServiceDownException) {
+                        return Mono.error(e);
+                    }
+                    if (e instanceof WebClientResponseException ex && ex.getStatusCode().value() == 401) {
+                        return Mono.error(new InvalidJwtException(SERVICE_NAME));
+                    }
+                    if (e instanceof WebClientResponseException ex && ex.getStatusCode().value() == 404) {
+                        userExistenceCache.put(userId, false);
+                    }
+                    return Mono.just(false);
+                });
     }
 }
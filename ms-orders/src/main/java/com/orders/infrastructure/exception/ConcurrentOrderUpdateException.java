@@ -0,0 +1,7 @@
+package com.orders.infrastructure.exception;
+
+public class ConcurrentOrderUpdateException extends RuntimeException {
+    public ConcurrentOrderUpdateException(Long orderId) {
+        super(String.format("La commande %d a été modifiée simultanément par une autre requête, veuillez réessayer", orderId));
+    }
+}
@@ -0,0 +1,7 @@
+package com.orders.infrastructure.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String key) {
+        super(String.format("La clé d'idempotence '%s' a déjà été utilisée pour une requête différente", key));
+    }
+}
@@ -0,0 +1,7 @@
+package com.orders.infrastructure.exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    public IdempotentRequestInProgressException(String key) {
+        super(String.format("Une requête avec la clé d'idempotence '%s' est toujours en cours de traitement", key));
+    }
+}
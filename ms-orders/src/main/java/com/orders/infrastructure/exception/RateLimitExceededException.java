@@ -0,0 +1,21 @@
+package com.orders.infrastructure.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String endpoint, Duration retryAfter) {
+        this(endpoint, Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    private RateLimitExceededException(String endpoint, long retryAfterSeconds) {
+        super(String.format("Trop de requêtes sur '%s', réessayer dans %d s", endpoint, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,28 +1,94 @@
 package com.orders.infrastructure.health;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Suivi de l'état (UP/DOWN) des services distants, tenu en mémoire.
+ * L'état est rafraîchi par une sonde planifiée et par le résultat des vrais appels des clients :
+ * {@link #checkService(String)} est une simple lecture, sans appel réseau. Un appel en échec isolé ne marque pas
+ * le service DOWN : il faut {@code orders.health.failure-threshold} échecs consécutifs ou une sonde en échec.
+ * Les taux d'erreur et d'appels lents restent du ressort du circuit breaker (DownstreamResilience).
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExternalServiceChecker {
 
     private final WebClient webClient;
+    private final String probePath;
+    private final Duration probeTimeout;
+    private final int failureThreshold;
+    private final Map<String, Boolean> states = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> consecutiveFailures = new ConcurrentHashMap<>();
+
+    public ExternalServiceChecker(
+            WebClient webClient,
+            @Value("${orders.health.probe-path:/actuator/health/liveness}") String probePath,
+            @Value("${orders.health.probe-timeout:2s}") Duration probeTimeout,
+            @Value("${orders.health.failure-threshold:5}") int failureThreshold) {
+        this.webClient = webClient;
+        this.probePath = probePath;
+        this.probeTimeout = probeTimeout;
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Déclare un service à surveiller. Il est considéré UP jusqu'à la première sonde ou au premier échec.
+     */
+    public void register(String baseUrl) {
+        states.putIfAbsent(baseUrl, true);
+    }
 
     public boolean checkService(String baseUrl) {
-        try {
+        return states.computeIfAbsent(baseUrl, url -> true);
+    }
+
+    public void recordSuccess(String baseUrl) {
+        failuresOf(baseUrl).set(0);
+        if (!Boolean.TRUE.equals(states.put(baseUrl, true))) {
+            log.info("Service {} de nouveau disponible", baseUrl);
+        }
+    }
+
+    /**
+     * Échec d'un vrai appel : le service n'est marqué DOWN qu'au-delà de {@code failureThreshold} échecs consécutifs.
+     */
+    public void recordFailure(String baseUrl) {
+        if (failuresOf(baseUrl).incrementAndGet() >= failureThreshold) {
+            markDown(baseUrl);
+        }
+    }
+
+    private void markDown(String baseUrl) {
+        if (!Boolean.FALSE.equals(states.put(baseUrl, false))) {
+            log.warn("Service {} indisponible", baseUrl);
+        }
+    }
+
+    private AtomicInteger failuresOf(String baseUrl) {
+        return consecutiveFailures.computeIfAbsent(baseUrl, url -> new AtomicInteger());
+    }
+
+    @Scheduled(fixedDelayString = "${orders.health.probe-interval:10s}")
+    public void probeServices() {
+        for (String baseUrl : states.keySet()) {
             webClient
                     .get()
-                    .uri(baseUrl + "/actuator/health")
+                    .uri(baseUrl + probePath)
                     .retrieve()
                     .toBodilessEntity()
-                    .block(Duration.ofSeconds(2));
-            return true;
-        } catch (Exception e) {
-            return false;
+                    .timeout(probeTimeout)
+                    .subscribe(
+                            response -> recordSuccess(baseUrl),
+                            error -> markDown(baseUrl));
         }
     }
 }
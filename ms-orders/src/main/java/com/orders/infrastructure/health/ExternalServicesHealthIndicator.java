@@ -1,15 +1,16 @@
 package com.orders.infrastructure.health;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
-import java.time.Duration;
 import java.util.Objects;
 
+/**
+ * Expose l'état des services distants tel que suivi par {@link ExternalServiceChecker},
+ * sans déclencher d'appel réseau à chaque lecture de /actuator/health.
+ */
 @Component
 public class ExternalServicesHealthIndicator implements HealthIndicator {
 
@@ -3,20 +3,39 @@ package com.orders.infrastructure.metrics;
 import com.orders.domain.entity.Order;
 import com.orders.domain.enums.OrderStatus;
 import com.orders.domain.repository.OrderRepository;
-import io.micrometer.core.instrument.Counter;
+import com.orders.domain.repository.OrderStatusTotal;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import jakarta.annotation.PostConstruct;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Le chiffre d'affaires du jour est maintenu en mémoire, par statut, et mis à jour par OrderService à chaque
+ * création, changement de statut et suppression : la lecture des jauges ne touche pas la base.
+ * L'agrégat est reconstruit par un SUM SQL au démarrage et au passage de minuit.
+ */
+@Slf4j
 @Component
 public class OrderMetrics {
 
     private final OrderRepository orderRepository;
     private final MeterRegistry meterRegistry;
+
+    private volatile LocalDate day = LocalDate.now();
+    private volatile Map<OrderStatus, BigDecimal> amountsToday = new ConcurrentHashMap<>();
+
     public OrderMetrics(OrderRepository orderRepository, MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.meterRegistry = meterRegistry;
@@ -28,6 +47,12 @@ public class OrderMetrics {
                         OrderMetrics::getTotalAmountToday)
                 .description("Montant total des commandes du jour")
                 .register(meterRegistry);
+        for (OrderStatus status : OrderStatus.values()) {
+            Gauge.builder("orders.status.amount.today", this, metrics -> metrics.getAmountToday(status))
+                    .description("Montant des commandes du jour par statut")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
     }
 
     public void incrementCreatedOrders(OrderStatus status) {
@@ -35,14 +60,79 @@ public class OrderMetrics {
     }
 
     public double getTotalAmountToday() {
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        BigDecimal totalAmount =
-                orderRepository
-                .findByOrderDateBetween(startOfDay, endOfDay)
-                .stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        return totalAmount.doubleValue();
+        return currentAmounts().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
+    }
+
+    public double getAmountToday(OrderStatus status) {
+        return currentAmounts().getOrDefault(status, BigDecimal.ZERO).doubleValue();
+    }
+
+    public void recordCreated(Order order) {
+        afterCommit(() -> add(order.getOrderDate(), order.getStatus(), order.getTotalAmount()));
+    }
+
+    /**
+     * Appelé après les mises à jour de statut faites par requête UPDATE, qui ne chargent pas l'entité.
+     */
+    public void recordStatusChange(LocalDateTime orderDate, BigDecimal totalAmount, OrderStatus previousStatus, OrderStatus newStatus) {
+        if (previousStatus == newStatus) {
+            return;
+        }
+        afterCommit(() -> {
+            add(orderDate, previousStatus, totalAmount.negate());
+            add(orderDate, newStatus, totalAmount);
+        });
+    }
+
+    public void recordDeleted(Order order) {
+        afterCommit(() -> add(order.getOrderDate(), order.getStatus(), order.getTotalAmount().negate()));
+    }
+
+    /**
+     * Recalcule l'agrégat du jour depuis la base. Une mise à jour concurrente peut être perdue entre la requête
+     * et le remplacement de la map ; elle est rattrapée à la reconstruction suivante.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.metrics.rebuild-cron:0 0 0 * * *}")
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        Map<OrderStatus, BigDecimal> amounts = new ConcurrentHashMap<>();
+        for (OrderStatusTotal total : orderRepository.sumTotalAmountByStatus(today.atStartOfDay(), today.plusDays(1).atStartOfDay())) {
+            amounts.put(total.getStatus(), total.getTotalAmount());
+        }
+        amountsToday = amounts;
+        day = today;
+        log.info("Agrégat du chiffre d'affaires du {} reconstruit: {}", today, amounts);
+    }
+
+    /**
+     * Lecture seule, appelée par les jauges : entre minuit et la reconstruction planifiée, l'agrégat de la veille
+     * n'est plus exposé mais la base n'est jamais interrogée depuis le thread de collecte.
+     */
+    private Map<OrderStatus, BigDecimal> currentAmounts() {
+        return LocalDate.now().equals(day) ? amountsToday : Map.of();
+    }
+
+    private void add(LocalDateTime orderDate, OrderStatus status, BigDecimal amount) {
+        if (orderDate == null || !orderDate.toLocalDate().equals(day)) {
+            return;
+        }
+        amountsToday.merge(status, amount, BigDecimal::add);
+    }
+
+    /**
+     * Les mises à jour ne sont appliquées qu'une fois la transaction validée, pour qu'un rollback ne fausse pas l'agrégat.
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
     }
 }
@@ -0,0 +1,41 @@
+package com.orders.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou, sous sa forme GCRA : au lieu de stocker un nombre de jetons et une date de remplissage,
+ * on ne garde que l'instant théorique auquel le seau redevient plein, mis à jour par compare-and-set.
+ * Le seau contient au plus {@code burst} jetons et se remplit de {@code permitsPerSecond} jetons par seconde.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Le débit et la rafale d'un seau à jetons doivent être positifs");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Consomme un jeton à l'instant {@code nowNanos}. Retourne 0 si le jeton est accordé, sinon le délai
+     * en nanosecondes avant qu'un jeton soit disponible.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long next = (current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos)) + emissionIntervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (allowedAt > nowNanos) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
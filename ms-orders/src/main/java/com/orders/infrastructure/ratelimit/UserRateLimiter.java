@@ -0,0 +1,82 @@
+package com.orders.infrastructure.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orders.infrastructure.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limite le nombre d'appels d'un endpoint par utilisateur, avec un seau à jetons par couple (endpoint, userId).
+ * Le débit et la rafale se configurent par endpoint :
+ * {@code orders.rate-limit.endpoints.<endpoint>.permits-per-second} et {@code .burst}.
+ * Les seaux inutilisés depuis {@code orders.rate-limit.idle-ttl} sont oubliés (un seau oublié est plein).
+ */
+@Slf4j
+@Component
+public class UserRateLimiter {
+
+    private static final String PROPERTY_PREFIX = "orders.rate-limit.endpoints.";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+    private final double defaultPermitsPerSecond;
+    private final int defaultBurst;
+
+    public UserRateLimiter(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${orders.rate-limit.idle-ttl:10m}") Duration idleTtl,
+            @Value("${orders.rate-limit.max-users:100000}") long maxUsers,
+            @Value("${orders.rate-limit.default.permits-per-second:5}") double defaultPermitsPerSecond,
+            @Value("${orders.rate-limit.default.burst:10}") int defaultBurst) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.defaultPermitsPerSecond = defaultPermitsPerSecond;
+        this.defaultBurst = defaultBurst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+
+    /**
+     * Consomme un jeton pour l'utilisateur, ou lève RateLimitExceededException avec le délai avant le prochain jeton.
+     * Un appel sans utilisateur identifié n'est pas limité ici.
+     */
+    public void acquire(String endpoint, Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(endpoint + ":" + userId, key -> newBucket(endpoint));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            rejectedCounters.computeIfAbsent(endpoint, this::rejectedCounter).increment();
+            log.warn("Limite d'appels atteinte sur {} pour l'utilisateur {}", endpoint, userId);
+            throw new RateLimitExceededException(endpoint, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private TokenBucket newBucket(String endpoint) {
+        double permitsPerSecond = environment.getProperty(PROPERTY_PREFIX + endpoint + ".permits-per-second", Double.class, defaultPermitsPerSecond);
+        int burst = environment.getProperty(PROPERTY_PREFIX + endpoint + ".burst", Integer.class, defaultBurst);
+        return new TokenBucket(permitsPerSecond, burst);
+    }
+
+    private Counter rejectedCounter(String endpoint) {
+        return Counter.builder("orders.rate-limit.rejected")
+                .description("Appels refusés par la limitation de débit par utilisateur")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+}
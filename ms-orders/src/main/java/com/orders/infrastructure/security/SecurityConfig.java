@@ -2,11 +2,14 @@ package com.orders.infrastructure.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -20,7 +23,9 @@ public class SecurityConfig {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            @Value("${orders.service-account.email}") String serviceAccountEmail) throws Exception {
 
         http.csrf(csrf -> csrf.disable())
                 .sessionManagement(session ->
@@ -28,6 +33,10 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/actuator/**").permitAll()
+                        // Opération d'exploitation : réservée au compte de service de ms-orders
+                        .requestMatchers("/api/v1/orders/product-cache/**").access((authentication, context) ->
+                                new AuthorizationDecision(authentication.get().getPrincipal() instanceof Jwt jwt
+                                        && serviceAccountEmail.equalsIgnoreCase(jwt.getClaimAsString("email"))))
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
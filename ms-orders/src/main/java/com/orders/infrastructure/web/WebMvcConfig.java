@@ -0,0 +1,36 @@
+package com.orders.infrastructure.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Délais des requêtes asynchrones. Il n'y a pas de délai global : les flux SSE reçoivent le leur à la création de
+ * l'émetteur ({@code orders.events.timeout}) et seul l'export en flux a besoin de dépasser le délai par défaut du serveur.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final Duration exportTimeout;
+
+    public WebMvcConfig(@Value("${orders.export.timeout:30m}") Duration exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            // Appelé juste après le démarrage du traitement asynchrone, avant que le conteneur ne reprenne la main
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.getAsyncContext().setTimeout(exportTimeout.toMillis());
+            }
+        }).addPathPatterns("/api/v1/orders/export");
+    }
+}
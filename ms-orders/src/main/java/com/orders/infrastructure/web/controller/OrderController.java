@@ -1,8 +1,25 @@
 package com.orders.infrastructure.web.controller;
 
+import com.orders.application.dto.BulkStatusUpdateRequestDTO;
+import com.orders.application.dto.BulkStatusUpdateResponseDTO;
+import com.orders.application.dto.OrderBatchResponseDTO;
+import com.orders.application.dto.OrderPageDTO;
 import com.orders.application.dto.OrderRequestDTO;
 import com.orders.application.dto.OrderResponseDTO;
+import com.orders.application.dto.OrderSearchCriteriaDTO;
+import com.orders.application.dto.OrderStatsDTO;
+import com.orders.application.dto.UserOrderHistoryPageDTO;
+import com.orders.application.service.BulkStatusUpdateService;
+import com.orders.application.service.IdempotencyService;
+import com.orders.application.service.OrderBatchService;
+import com.orders.application.service.OrderExportService;
+import com.orders.application.service.OrderSearchService;
 import com.orders.application.service.OrderService;
+import com.orders.application.service.OrderStatsService;
+import com.orders.application.service.OrderStatusEventService;
+import com.orders.application.service.UserOrderHistoryService;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.infrastructure.ratelimit.UserRateLimiter;
 import com.orders.infrastructure.security.UserDetails;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,11 +30,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -29,7 +53,22 @@ import java.util.Map;
 @Tag(name = "Orders", description = "API des commandes")
 public class OrderController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final UserOrderHistoryService userOrderHistoryService;
+    private final OrderStatsService orderStatsService;
+    private final IdempotencyService idempotencyService;
+    private final OrderBatchService orderBatchService;
+    private final BulkStatusUpdateService bulkStatusUpdateService;
+    private final OrderStatusEventService orderStatusEventService;
+    private final OrderSearchService orderSearchService;
+    private final UserRateLimiter userRateLimiter;
 
     @Operation(summary = "Récupérer toutes les commandes", description = "Retourne la liste complète de toutes les commandes enregistrées")
     @ApiResponses(value = {
@@ -45,6 +84,98 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrders());
     }
 
+    @Operation(summary = "Statistiques des commandes", description = "Retourne le nombre, le montant total et le panier moyen des commandes par statut et par jour sur la période [from, to] (30 derniers jours par défaut)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistiques calculées",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = OrderStatsDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Période invalide", content = @Content)
+    })
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderStatsDTO> getStats(
+            @Parameter(description = "Premier jour de la période (inclus)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Dernier jour de la période (inclus)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("GET /api/v1/orders/stats - Statistiques des commandes du {} au {}", from, to);
+        return ResponseEntity.ok(orderStatsService.getStats(from, to));
+    }
+
+    @Operation(summary = "Rechercher des commandes", description = "Recherche paginée combinant utilisateur, statuts, période [from, to), montant et produit")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page de résultats",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = OrderPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Critère, statut ou tri invalide", content = @Content)
+    })
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderPageDTO> searchOrders(
+            @Parameter(description = "ID de l'utilisateur")
+            @RequestParam(required = false) Long userId,
+            @Parameter(description = "Statuts recherchés (paramètre répétable)")
+            @RequestParam(required = false) List<String> status,
+            @Parameter(description = "Date de commande minimale (incluse)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Date de commande maximale (exclue)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Montant total minimal")
+            @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Montant total maximal")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "ID d'un produit présent dans la commande")
+            @RequestParam(required = false) Long productId,
+            @Parameter(description = "Numéro de page, à partir de 0")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Nombre de commandes par page (max 100)")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Tri, par exemple totalAmount,desc (par défaut orderDate,desc)")
+            @RequestParam(required = false) String sort) {
+
+        log.info("GET /api/v1/orders/search - Recherche de commandes");
+        OrderSearchCriteriaDTO criteria = OrderSearchCriteriaDTO.builder()
+                .userId(userId)
+                .statuses(status == null ? null : status.stream().map(OrderStatus::fromString).toList())
+                .from(from)
+                .to(to)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .productId(productId)
+                .build();
+        return ResponseEntity.ok(orderSearchService.search(criteria, page, size, sort));
+    }
+
+    @Operation(summary = "Exporter les commandes", description = "Exporte en flux les commandes et leurs articles au format NDJSON ou CSV, filtrées par statut et par période [from, to)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export en cours de transmission"),
+            @ApiResponse(responseCode = "400", description = "Format, statut ou période invalide", content = @Content)
+    })
+    // Le format est choisi par le paramètre format et non par l'en-tête Accept : pas de produces, donc pas de 406
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Format d'export (ndjson ou csv)")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Statut des commandes à exporter")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Date de commande minimale (incluse)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Date de commande maximale (exclue)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        log.info("GET /api/v1/orders/export - Export des commandes au format {}", format);
+        OrderExportService.ExportFormat exportFormat = OrderExportService.ExportFormat.fromString(format);
+        OrderStatus orderStatus = status == null ? null : OrderStatus.fromString(status);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+
+        StreamingResponseBody body = out -> orderExportService.exportOrders(exportFormat, orderStatus, from, to, out);
+        boolean csv = exportFormat == OrderExportService.ExportFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(csv ? CSV_VALUE : NDJSON_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
     @Operation(summary = "Récupérer une commande", description = "Retourne une commande spécifique basé sur son ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Commande récupérée",
@@ -68,13 +199,62 @@ public class OrderController {
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = OrderResponseDTO.class))),
             @ApiResponse(responseCode = "400", description = "Données invalides", content = @Content),
-            @ApiResponse(responseCode = "409", description = "La commande existe deja", content = @Content)
+            @ApiResponse(responseCode = "409", description = "La commande existe deja ou une requête avec la même clé d'idempotence est en cours", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Clé d'idempotence déjà utilisée pour une autre requête", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Trop de créations pour cet utilisateur, réessayer après Retry-After", content = @Content)
     })
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<OrderResponseDTO> createOrder(@Parameter(description = "Commande à créer", required = true) @Valid @RequestBody OrderRequestDTO orderRequestDTO) {
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @Parameter(description = "Commande à créer", required = true) @Valid @RequestBody OrderRequestDTO orderRequestDTO,
+            @Parameter(description = "Clé rendant la création idempotente : une requête rejouée avec la même clé renvoie la commande d'origine")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         orderRequestDTO.setUserId(UserDetails.getUserId());
         log.info("POST /api/v1/orders - Création de la commande pour le user: {}", orderRequestDTO.getUserId());
-        return ResponseEntity.ok(orderService.createOrder(orderRequestDTO));
+        userRateLimiter.acquire("create", orderRequestDTO.getUserId());
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(orderService.createOrder(orderRequestDTO));
+        }
+        IdempotencyService.Result<OrderResponseDTO> result = idempotencyService.execute(
+                String.valueOf(orderRequestDTO.getUserId()), idempotencyKey, orderRequestDTO,
+                () -> orderService.createOrder(orderRequestDTO));
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.response());
+    }
+
+    @Operation(summary = "Créer des commandes en lot", description = "Crée plusieurs commandes en une requête ; chaque commande est acceptée ou rejetée individuellement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lot traité, résultat par commande",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = OrderBatchResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lot vide ou trop volumineux", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Trop de lots pour cet utilisateur, réessayer après Retry-After", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Service utilisateurs ou produits indisponible", content = @Content)
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderBatchResponseDTO> createOrders(
+            @Parameter(description = "Commandes à créer, toutes rattachées à l'appelant ; une commande portant un autre userId est rejetée", required = true)
+            @RequestBody List<OrderRequestDTO> orderRequestDTOs) {
+        log.info("POST /api/v1/orders/batch - Création groupée de {} commandes", orderRequestDTOs.size());
+        Long userId = UserDetails.getUserId();
+        userRateLimiter.acquire("batch", userId);
+        return ResponseEntity.ok(orderBatchService.createOrders(orderRequestDTOs, userId));
+    }
+
+    @Operation(summary = "Changer le statut de plusieurs commandes",
+            description = "Changer le statut d'une liste de commandes ou de celles correspondant à un filtre ; les commandes annulées, livrées ou introuvables sont ignorées et listées avec leur motif")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statuts mis à jour",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkStatusUpdateResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Données invalides ou sélection trop volumineuse", content = @Content)
+    })
+    @PutMapping(value = "/status", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkStatusUpdateResponseDTO> updateOrderStatuses(
+            @Parameter(description = "IDs ou filtre des commandes, et statut cible", required = true)
+            @Valid @RequestBody BulkStatusUpdateRequestDTO request) {
+        log.info("PUT /api/v1/orders/status - Changement de statut groupé vers {}", request.getStatus());
+        return ResponseEntity.ok(bulkStatusUpdateService.updateStatuses(request));
     }
 
     @Operation(summary = "Changer le statut", description = "Changer le statut d'une commande")
@@ -124,6 +304,37 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByUserId(userId));
     }
 
+    @Operation(summary = "Récupérer l'historique des commandes d'un utilisateur", description = "Retourne les commandes d'un utilisateur, de la plus récente à la plus ancienne, paginées par curseur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Commandes récupérées",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserOrderHistoryPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide", content = @Content)
+    })
+    @GetMapping(value = "/user/{userId}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserOrderHistoryPageDTO> getOrderHistoryByUserId(
+            @Parameter(description = "ID de l'utilisateur", required = true) @PathVariable Long userId,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de commandes par page (max 100)") @RequestParam(required = false) Integer size) {
+        log.info("GET /api/v1/orders/user/{}/history - Récupération de l'historique des commandes de l'utilisateur", userId);
+        return ResponseEntity.ok(userOrderHistoryService.getHistory(userId, cursor, size));
+    }
+
+    @Operation(summary = "Suivre les changements de statut", description = "Flux Server-Sent Events des changements de statut des commandes de l'utilisateur connecté ; l'en-tête Last-Event-ID permet de reprendre après une déconnexion")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux ouvert",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "401", description = "Token invalide", content = @Content)
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatusEvents(
+            @Parameter(description = "ID du dernier événement reçu")
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        Long userId = UserDetails.getUserId();
+        log.info("GET /api/v1/orders/events - Ouverture du flux de statuts pour l'utilisateur {}", userId);
+        return orderStatusEventService.subscribe(userId, lastEventId);
+    }
+
     @Operation(summary = "Filtrer les commandes", description = "Filtrer les commandes par status")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Commandes filtrées",
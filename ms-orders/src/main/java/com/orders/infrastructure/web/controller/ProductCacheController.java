@@ -0,0 +1,50 @@
+package com.orders.infrastructure.web.controller;
+
+import com.orders.infrastructure.client.ProductSnapshotCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/orders/product-cache")
+@RequiredArgsConstructor
+@Tag(name = "Product cache", description = "Invalidation du cache local des produits, réservée au compte de service de ms-orders")
+public class ProductCacheController {
+
+    private final ProductSnapshotCache productSnapshotCache;
+
+    @Operation(summary = "Invalider un produit", description = "Retire un produit du cache local, il sera relu depuis ms-products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Produit invalidé"),
+            @ApiResponse(responseCode = "403", description = "Réservé au compte de service", content = @Content)
+    })
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> invalidateProduct(@Parameter(description = "ID du produit", required = true) @PathVariable Long productId) {
+        log.info("DELETE /api/v1/orders/product-cache/{} - Invalidation du produit", productId);
+        productSnapshotCache.invalidate(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Vider le cache produits", description = "Retire tous les produits du cache local")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Cache vidé"),
+            @ApiResponse(responseCode = "403", description = "Réservé au compte de service", content = @Content)
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> invalidateAll() {
+        log.info("DELETE /api/v1/orders/product-cache - Invalidation de tout le cache produits");
+        productSnapshotCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,17 +1,24 @@
+-- Identifiants alloués par blocs de 50 (optimiseur pooled-lo d'Hibernate, voir Order.ID_ALLOCATION_SIZE)
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE orders (
-    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY,
     user_id BIGINT NOT NULL,
     order_date TIMESTAMP NOT NULL,
     status VARCHAR(20) NOT NULL,
     total_amount DECIMAL(10, 2) NOT NULL,
     shipping_address VARCHAR(255) NOT NULL,
+    stock_status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    release_batch_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 
 CREATE TABLE order_items (
-    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY,
     order_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     product_name VARCHAR(255) NOT NULL,
@@ -23,3 +30,95 @@ CREATE TABLE order_items (
          REFERENCES orders(id)
          ON DELETE CASCADE
 );
+
+-- Index de la recherche multicritère (OrderSpecifications). Utilisateur et statut sont suivis de la date de commande
+-- pour couvrir aussi la période et le tri par défaut ; le filtre produit passe par order_items (product_id, order_id)
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+CREATE INDEX idx_orders_status_date ON orders (status, order_date);
+CREATE INDEX idx_orders_date ON orders (order_date);
+CREATE INDEX idx_orders_amount ON orders (total_amount);
+CREATE INDEX idx_order_items_product ON order_items (product_id, order_id);
+
+
+-- Modèle de lecture dénormalisé de l'historique des commandes par utilisateur
+CREATE TABLE user_order_history (
+    order_id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    item_count INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_user_order_history_user_date ON user_order_history (user_id, order_date DESC, order_id DESC);
+
+
+-- Outbox : événements écrits dans la transaction de la commande puis traités par StockReservationSaga
+CREATE TABLE order_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    payload CLOB NOT NULL,
+    operation_key VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_order_outbox_due ON order_outbox (status, next_attempt_at);
+
+
+-- Archive des commandes livrées ou annulées, alimentée par OrderArchiveService
+CREATE INDEX idx_orders_status_updated ON orders (status, updated_at);
+
+CREATE TABLE orders_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    shipping_address VARCHAR(255) NOT NULL,
+    stock_status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_orders_archive_date ON orders_archive (order_date);
+
+CREATE TABLE order_items_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    subtotal DECIMAL(10, 2) NOT NULL
+);
+
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id);
+
+
+-- Remise en stock des commandes annulées : les quantités sont agrégées par produit dans un lot envoyé par StockReleaseService
+CREATE INDEX idx_orders_stock_release ON orders (status, stock_status);
+CREATE INDEX idx_orders_release_batch ON orders (release_batch_id);
+
+CREATE TABLE stock_release_batch (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    payload CLOB NOT NULL,
+    operation_key VARCHAR(64) NOT NULL,
+    order_count INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_stock_release_batch_due ON stock_release_batch (status, next_attempt_at);
@@ -0,0 +1,112 @@
+package com.orders;
+
+import com.orders.infrastructure.client.DownstreamFailurePredicate;
+import com.orders.infrastructure.client.DownstreamResilience;
+import com.orders.infrastructure.exception.ExternalServiceDownException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class DownstreamResilienceTests {
+
+	private static final String SERVICE_NAME = "product-service";
+
+	private SimpleMeterRegistry meterRegistry;
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+	private BulkheadRegistry bulkheadRegistry;
+	private DownstreamResilience downstreamResilience;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.recordException(new DownstreamFailurePredicate())
+				.build());
+		bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+				.maxConcurrentCalls(1)
+				.maxWaitDuration(Duration.ZERO)
+				.build());
+		downstreamResilience = new DownstreamResilience(circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+	}
+
+	private static WebClientResponseException responseException(int status) {
+		return WebClientResponseException.create(status, "HTTP " + status, HttpHeaders.EMPTY, new byte[0], null);
+	}
+
+	@Test
+	void protect_shouldRejectWithExternalServiceDown_whenCircuitIsOpen() {
+		log.info("Début test: protect_shouldRejectWithExternalServiceDown_whenCircuitIsOpen");
+		circuitBreakerRegistry.circuitBreaker(SERVICE_NAME).transitionToOpenState();
+
+		Mono<String> call = downstreamResilience.protect(SERVICE_NAME, Mono.just("réponse"));
+
+		assertThrows(ExternalServiceDownException.class, call::block);
+		assertEquals(1.0, meterRegistry.get("orders.downstream.rejected")
+				.tag("service", SERVICE_NAME).tag("reason", "circuit-open").counter().count());
+		log.info("Fin test: protect_shouldRejectWithExternalServiceDown_whenCircuitIsOpen\n\n\n");
+	}
+
+	@Test
+	void protect_shouldRejectWithExternalServiceDown_whenBulkheadIsFull() {
+		log.info("Début test: protect_shouldRejectWithExternalServiceDown_whenBulkheadIsFull");
+		// Le seul appel simultané autorisé est déjà en cours
+		assertTrue(bulkheadRegistry.bulkhead(SERVICE_NAME).tryAcquirePermission());
+
+		Mono<String> call = downstreamResilience.protect(SERVICE_NAME, Mono.just("réponse"));
+
+		assertThrows(ExternalServiceDownException.class, call::block);
+		assertEquals(1.0, meterRegistry.get("orders.downstream.rejected")
+				.tag("service", SERVICE_NAME).tag("reason", "bulkhead-full").counter().count());
+		log.info("Fin test: protect_shouldRejectWithExternalServiceDown_whenBulkheadIsFull\n\n\n");
+	}
+
+	@Test
+	void protect_shouldNotCountClientErrorsAsFailures() {
+		log.info("Début test: protect_shouldNotCountClientErrorsAsFailures");
+		CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(SERVICE_NAME);
+
+		assertThrows(WebClientResponseException.class,
+				() -> downstreamResilience.protect(SERVICE_NAME, Mono.error(responseException(404))).block());
+		assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+
+		assertThrows(WebClientResponseException.class,
+				() -> downstreamResilience.protect(SERVICE_NAME, Mono.error(responseException(503))).block());
+		assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+		log.info("Fin test: protect_shouldNotCountClientErrorsAsFailures\n\n\n");
+	}
+
+	@Test
+	void downstreamFailurePredicate_shouldIgnoreOnlyClientErrors() {
+		log.info("Début test: downstreamFailurePredicate_shouldIgnoreOnlyClientErrors");
+		DownstreamFailurePredicate predicate = new DownstreamFailurePredicate();
+
+		assertFalse(predicate.test(responseException(400)));
+		assertFalse(predicate.test(responseException(401)));
+		assertFalse(predicate.test(responseException(404)));
+		assertFalse(predicate.test(responseException(409)));
+		assertTrue(predicate.test(responseException(500)));
+		assertTrue(predicate.test(responseException(503)));
+		assertTrue(predicate.test(new WebClientRequestException(new IOException("Connexion refusée"),
+				HttpMethod.GET, URI.create("http://localhost:8082"), HttpHeaders.EMPTY)));
+		assertTrue(predicate.test(new IllegalStateException("Délai dépassé")));
+		log.info("Fin test: downstreamFailurePredicate_shouldIgnoreOnlyClientErrors\n\n\n");
+	}
+}
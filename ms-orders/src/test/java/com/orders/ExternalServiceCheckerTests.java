@@ -0,0 +1,54 @@
+package com.orders;
+
+import com.orders.infrastructure.health.ExternalServiceChecker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@Slf4j
+public class ExternalServiceCheckerTests {
+
+	private static final String SERVICE_URL = "http://localhost:8082";
+
+	private ExternalServiceChecker externalServiceChecker;
+
+	@BeforeEach
+	void setUp() {
+		externalServiceChecker = new ExternalServiceChecker(mock(WebClient.class), "/actuator/health/liveness", Duration.ofSeconds(2), 3);
+		externalServiceChecker.register(SERVICE_URL);
+	}
+
+	@Test
+	void recordFailure_shouldMarkServiceDown_onlyAfterConsecutiveFailureThreshold() {
+		log.info("Début test: recordFailure_shouldMarkServiceDown_onlyAfterConsecutiveFailureThreshold");
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		assertTrue(externalServiceChecker.checkService(SERVICE_URL));
+
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		assertFalse(externalServiceChecker.checkService(SERVICE_URL));
+
+		externalServiceChecker.recordSuccess(SERVICE_URL);
+		assertTrue(externalServiceChecker.checkService(SERVICE_URL));
+		log.info("Fin test: recordFailure_shouldMarkServiceDown_onlyAfterConsecutiveFailureThreshold\n\n\n");
+	}
+
+	@Test
+	void recordSuccess_shouldResetConsecutiveFailures() {
+		log.info("Début test: recordSuccess_shouldResetConsecutiveFailures");
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		externalServiceChecker.recordSuccess(SERVICE_URL);
+		externalServiceChecker.recordFailure(SERVICE_URL);
+		externalServiceChecker.recordFailure(SERVICE_URL);
+
+		assertTrue(externalServiceChecker.checkService(SERVICE_URL));
+		log.info("Fin test: recordSuccess_shouldResetConsecutiveFailures\n\n\n");
+	}
+}
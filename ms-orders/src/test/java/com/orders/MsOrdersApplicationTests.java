@@ -1,20 +1,45 @@
 package com.orders;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.dto.OrderBatchResponseDTO;
+import com.orders.application.dto.OrderItemRequestDTO;
 import com.orders.application.dto.OrderRequestDTO;
 import com.orders.application.dto.OrderResponseDTO;
+import com.orders.application.dto.OrderedProductsDTO;
 import com.orders.application.mapper.OrderMapper;
+import com.orders.application.service.IdempotencyService;
+import com.orders.application.service.OrderBatchService;
 import com.orders.application.service.OrderService;
+import com.orders.application.service.OrderStatusEventService;
+import com.orders.application.service.StockReservationSaga;
+import com.orders.application.service.UserOrderHistoryService;
 import com.orders.domain.entity.Order;
 import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import com.orders.domain.repository.OrderArchiveRepository;
+import com.orders.domain.repository.OrderBatchRepository;
 import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OrderStatusRow;
+import com.orders.infrastructure.client.ProductClient;
 import com.orders.infrastructure.client.UserClient;
 import com.orders.infrastructure.exception.CommandCancelleOrDeliveredException;
+import com.orders.infrastructure.exception.ConcurrentOrderUpdateException;
+import com.orders.infrastructure.exception.ExternalServiceDownException;
+import com.orders.infrastructure.exception.IdempotencyKeyMismatchException;
 import com.orders.infrastructure.exception.ResourceNotFoundException;
 import com.orders.infrastructure.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,12 +50,14 @@ import static org.mockito.Mockito.*;
 public class MsOrdersApplicationTests {
 
 
-	@InjectMocks
 	private OrderService orderService;
 
 	@Mock
 	private OrderRepository orderRepository;
 
+	@Mock
+	private OrderArchiveRepository orderArchiveRepository;
+
 	@Mock
 	private OrderMapper orderMapper;
 
@@ -40,6 +67,21 @@ public class MsOrdersApplicationTests {
 	@Mock
 	private UserClient userClient;
 
+	@Mock
+	private ProductClient productClient;
+
+	@Mock
+	private UserOrderHistoryService userOrderHistoryService;
+
+	@Mock
+	private OrderStatusEventService orderStatusEventService;
+
+	@Mock
+	private StockReservationSaga stockReservationSaga;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
 	private Order order;
 	private OrderRequestDTO orderRequestDTO;
 	private OrderResponseDTO orderResponseDTO;
@@ -47,6 +89,11 @@ public class MsOrdersApplicationTests {
 	@BeforeEach
 	void setUp() {
 		MockitoAnnotations.openMocks(this);
+		orderService = new OrderService(orderRepository, orderArchiveRepository, orderMapper, orderMetrics, userClient,
+				productClient, userOrderHistoryService, orderStatusEventService, stockReservationSaga, transactionTemplate,
+				Duration.ofSeconds(3));
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
 		orderRequestDTO = OrderRequestDTO.builder()
 				.userId(1L)
@@ -73,8 +120,9 @@ public class MsOrdersApplicationTests {
 	@Test
 	void createOrder_shouldSaveOrder_whenUserExists() {
 		log.info("Début test: createOrder_shouldSaveOrder_whenUserExists");
-		when(userClient.isUserExist(1L)).thenReturn(true);
-		when(orderMapper.toEntity(orderRequestDTO)).thenReturn(order);
+		when(userClient.isUserExistAsync(1L)).thenReturn(Mono.just(true));
+		when(productClient.getProductsAsync(anyList())).thenReturn(Mono.just(new OrderedProductsDTO()));
+		when(orderMapper.toEntity(eq(orderRequestDTO), anyList(), anyMap())).thenReturn(order);
 		when(orderRepository.save(order)).thenReturn(order);
 		when(orderMapper.toDTO(order)).thenReturn(orderResponseDTO);
 
@@ -83,6 +131,9 @@ public class MsOrdersApplicationTests {
 		assertNotNull(response);
 		assertEquals(1L, response.getId());
 		verify(orderMetrics, times(1)).incrementCreatedOrders(OrderStatus.PENDING);
+		verify(orderMetrics, times(1)).recordCreated(order);
+		verify(userOrderHistoryService, times(1)).onOrderCreated(order);
+		verify(stockReservationSaga, times(1)).enqueue(eq(order), anyList());
 		verify(orderRepository, times(1)).save(order);
 		log.info("Fin test: createOrder_shouldSaveOrder_whenUserExists\n\n\n");
 	}
@@ -90,13 +141,40 @@ public class MsOrdersApplicationTests {
 	@Test
 	void createOrder_shouldThrowException_whenUserNotFound() {
 		log.info("Début test: createOrder_shouldThrowException_whenUserNotFound");
-		when(userClient.isUserExist(1L)).thenReturn(false);
+		when(userClient.isUserExistAsync(1L)).thenReturn(Mono.just(false));
+		when(productClient.getProductsAsync(anyList())).thenReturn(Mono.just(new OrderedProductsDTO()));
 
 		assertThrows(ResourceNotFoundException.class, () -> orderService.createOrder(orderRequestDTO));
+		verify(stockReservationSaga, never()).enqueue(any(), any());
 		verify(orderRepository, never()).save(any());
 		log.info("Fin test: createOrder_shouldThrowException_whenUserNotFound\n\n\n");
 	}
 
+	@Test
+	void createOrder_shouldReplayResponse_whenIdempotencyKeyIsReused() {
+		log.info("Début test: createOrder_shouldReplayResponse_whenIdempotencyKeyIsReused");
+		IdempotencyService idempotencyService = new IdempotencyService(new ObjectMapper(), new SimpleMeterRegistry(),
+				Duration.ofMinutes(1), 100, Duration.ofSeconds(1));
+		when(userClient.isUserExistAsync(1L)).thenReturn(Mono.just(true));
+		when(productClient.getProductsAsync(anyList())).thenReturn(Mono.just(new OrderedProductsDTO()));
+		when(orderMapper.toEntity(eq(orderRequestDTO), anyList(), anyMap())).thenReturn(order);
+		when(orderRepository.save(order)).thenReturn(order);
+		when(orderMapper.toDTO(order)).thenReturn(orderResponseDTO);
+
+		IdempotencyService.Result<OrderResponseDTO> first = idempotencyService.execute("1", "cle-1", orderRequestDTO, () -> orderService.createOrder(orderRequestDTO));
+		IdempotencyService.Result<OrderResponseDTO> replay = idempotencyService.execute("1", "cle-1", orderRequestDTO, () -> orderService.createOrder(orderRequestDTO));
+
+		assertFalse(first.replayed());
+		assertTrue(replay.replayed());
+		assertSame(first.response(), replay.response());
+		verify(orderRepository, times(1)).save(order);
+		verify(userClient, times(1)).isUserExistAsync(1L);
+
+		OrderRequestDTO otherRequest = OrderRequestDTO.builder().userId(1L).shippingAddress("Autre adresse").orderItems(List.of()).build();
+		assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute("1", "cle-1", otherRequest, () -> orderService.createOrder(otherRequest)));
+		log.info("Fin test: createOrder_shouldReplayResponse_whenIdempotencyKeyIsReused\n\n\n");
+	}
+
 	@Test
 	void getOrderById_shouldReturnOrder_whenFound() {
 		log.info("Début test: getOrderById_shouldReturnOrder_whenFound");
@@ -110,6 +188,21 @@ public class MsOrdersApplicationTests {
 		log.info("Fin test: getOrderById_shouldReturnOrder_whenFound\n\n\n");
 	}
 
+	@Test
+	void getOrderById_shouldReadArchive_whenOrderWasArchived() {
+		log.info("Début test: getOrderById_shouldReadArchive_whenOrderWasArchived");
+		order.setStatus(OrderStatus.DELIVERED);
+		orderResponseDTO.setStatus(OrderStatus.DELIVERED);
+		when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+		when(orderArchiveRepository.findById(1L)).thenReturn(Optional.of(order));
+		when(orderMapper.toDTO(order)).thenReturn(orderResponseDTO);
+
+		OrderResponseDTO response = orderService.getOrderById(1L);
+
+		assertEquals(OrderStatus.DELIVERED, response.getStatus());
+		log.info("Fin test: getOrderById_shouldReadArchive_whenOrderWasArchived\n\n\n");
+	}
+
 	@Test
 	void getOrderById_shouldThrowException_whenUserNotFound() {
 		log.info("Début test: getOrderById_shouldThrowException_whenUserNotFound");
@@ -119,18 +212,27 @@ public class MsOrdersApplicationTests {
 		log.info("Fin test: getOrderById_shouldThrowException_whenUserNotFound\n\n\n");
 	}
 
+	private static OrderStatusRow statusRow(OrderStatus status, long version) {
+		OrderStatusRow row = mock(OrderStatusRow.class);
+		when(row.getId()).thenReturn(1L);
+		when(row.getUserId()).thenReturn(1L);
+		when(row.getStatus()).thenReturn(status);
+		when(row.getVersion()).thenReturn(version);
+		when(row.getTotalAmount()).thenReturn(BigDecimal.TEN);
+		return row;
+	}
+
 	@Test
 	void updateOrderStatus_shouldUpdateStatus_whenOrderValid() {
 		log.info("Début test: updateOrderStatus_shouldUpdateStatus_whenOrderValid");
 
-		when(userClient.isUserExist(1L)).thenReturn(true);
-		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-
-		// Simule la sauvegarde et met à jour le statut de l'entité
-		when(orderRepository.save(order)).thenAnswer(invocation -> {
+		OrderStatusRow row = statusRow(OrderStatus.PENDING, 0L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(row));
+		when(orderRepository.updateStatus(eq(1L), eq(OrderStatus.DELIVERED), anyCollection(), eq(0L), any())).thenAnswer(invocation -> {
 			order.setStatus(OrderStatus.DELIVERED);
-			return order;
+			return 1;
 		});
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
 
 		// Mapper renvoie un DTO avec le nouveau statut
 		when(orderMapper.toDTO(order)).thenAnswer(invocation -> OrderResponseDTO.builder()
@@ -143,21 +245,113 @@ public class MsOrdersApplicationTests {
 		OrderResponseDTO response = orderService.updateOrderStatus(1L, "DELIVERED");
 
 		assertEquals(OrderStatus.DELIVERED, response.getStatus());
-		verify(orderRepository, times(1)).save(order);
+		verify(orderRepository, never()).save(any());
+		verify(userOrderHistoryService).onStatusChanged(1L, OrderStatus.DELIVERED);
+		verify(orderStatusEventService).publish(1L, 1L, OrderStatus.PENDING, OrderStatus.DELIVERED);
 		log.info("Fin test: updateOrderStatus_shouldUpdateStatus_whenOrderValid");
 	}
 
 	@Test
 	void updateOrderStatus_shouldThrowException_whenOrderCancelledOrDelivered() {
 		log.info("Début test: updateOrderStatus_shouldThrowException_whenOrderCancelledOrDelivered");
-		order.setStatus(OrderStatus.CANCELLED);
-		when(userClient.isUserExist(1L)).thenReturn(true);
-		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+		OrderStatusRow row = statusRow(OrderStatus.CANCELLED, 0L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(row));
 
 		assertThrows(CommandCancelleOrDeliveredException.class, () -> orderService.updateOrderStatus(1L, "PENDING"));
+		verify(orderRepository, never()).updateStatus(any(), any(), anyCollection(), any(), any());
 		log.info("Fin test: updateOrderStatus_shouldThrowException_whenOrderCancelledOrDelivered\n\n\n");
 	}
 
+	@Test
+	void updateOrderStatus_shouldRetry_whenVersionChangedConcurrently() {
+		log.info("Début test: updateOrderStatus_shouldRetry_whenVersionChangedConcurrently");
+		OrderStatusRow stale = statusRow(OrderStatus.PENDING, 0L);
+		OrderStatusRow current = statusRow(OrderStatus.CONFIRMED, 1L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(stale), Optional.of(current));
+		when(orderRepository.updateStatus(eq(1L), eq(OrderStatus.SHIPPED), anyCollection(), eq(0L), any())).thenReturn(0);
+		when(orderRepository.updateStatus(eq(1L), eq(OrderStatus.SHIPPED), anyCollection(), eq(1L), any())).thenReturn(1);
+
+		orderService.changeOrderStatus(1L, OrderStatus.SHIPPED);
+
+		verify(orderRepository, times(2)).findStatusRow(1L);
+		verify(orderMetrics).recordStatusChange(any(), eq(BigDecimal.TEN), eq(OrderStatus.CONFIRMED), eq(OrderStatus.SHIPPED));
+		log.info("Fin test: updateOrderStatus_shouldRetry_whenVersionChangedConcurrently\n\n\n");
+	}
+
+	@Test
+	void updateOrderStatus_shouldFail_whenOrderKeepsChanging() {
+		log.info("Début test: updateOrderStatus_shouldFail_whenOrderKeepsChanging");
+		OrderStatusRow row = statusRow(OrderStatus.PENDING, 0L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(row));
+		when(orderRepository.updateStatus(any(), any(), anyCollection(), any(), any())).thenReturn(0);
+
+		assertThrows(ConcurrentOrderUpdateException.class, () -> orderService.changeOrderStatus(1L, OrderStatus.SHIPPED));
+		verifyNoInteractions(userOrderHistoryService, orderStatusEventService);
+		log.info("Fin test: updateOrderStatus_shouldFail_whenOrderKeepsChanging\n\n\n");
+	}
+
+	@Test
+	void rejectStockReservation_shouldCancelOrder_whenOrderIsPending() {
+		log.info("Début test: rejectStockReservation_shouldCancelOrder_whenOrderIsPending");
+		OrderStatusRow row = statusRow(OrderStatus.PENDING, 0L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(row));
+		when(orderRepository.cancelPending(eq(1L), eq(StockReservationStatus.REJECTED), eq(0L), any())).thenReturn(1);
+
+		orderService.rejectStockReservation(1L);
+
+		verify(orderRepository, never()).save(any());
+		verify(userOrderHistoryService).onStatusChanged(1L, OrderStatus.CANCELLED);
+		verify(orderStatusEventService).publish(1L, 1L, OrderStatus.PENDING, OrderStatus.CANCELLED);
+		log.info("Fin test: rejectStockReservation_shouldCancelOrder_whenOrderIsPending\n\n\n");
+	}
+
+	@Test
+	void rejectStockReservation_shouldKeepStatus_whenOrderIsNoLongerPending() {
+		log.info("Début test: rejectStockReservation_shouldKeepStatus_whenOrderIsNoLongerPending");
+		OrderStatusRow row = statusRow(OrderStatus.SHIPPED, 2L);
+		when(orderRepository.findStatusRow(1L)).thenReturn(Optional.of(row));
+
+		orderService.rejectStockReservation(1L);
+
+		verify(orderRepository, never()).cancelPending(any(), any(), any(), any());
+		verify(orderRepository).updateStockStatus(eq(1L), eq(StockReservationStatus.PENDING), eq(StockReservationStatus.REJECTED), any());
+		verifyNoInteractions(userOrderHistoryService, orderStatusEventService);
+		log.info("Fin test: rejectStockReservation_shouldKeepStatus_whenOrderIsNoLongerPending\n\n\n");
+	}
+
+	@Test
+	void createOrders_shouldRejectOrder_whenUserIdIsNotTheCaller() {
+		log.info("Début test: createOrders_shouldRejectOrder_whenUserIdIsNotTheCaller");
+		OrderBatchService orderBatchService = new OrderBatchService(orderMapper, mock(OrderBatchRepository.class), orderMetrics,
+				userClient, productClient, stockReservationSaga, transactionTemplate, mock(Validator.class),
+				Duration.ofSeconds(3), 4, 500);
+		OrderRequestDTO otherUserRequest = OrderRequestDTO.builder().userId(2L).shippingAddress("Rue des lilas").orderItems(List.of()).build();
+
+		OrderBatchResponseDTO response = orderBatchService.createOrders(List.of(otherUserRequest), 1L);
+
+		assertEquals(0, response.getCreatedCount());
+		assertEquals(1, response.getRejectedCount());
+		assertFalse(response.getResults().get(0).getErrors().isEmpty());
+		verifyNoInteractions(userClient, productClient, stockReservationSaga);
+		log.info("Fin test: createOrders_shouldRejectOrder_whenUserIdIsNotTheCaller\n\n\n");
+	}
+
+	@Test
+	void createOrders_shouldThrowExternalServiceDown_whenLookupsReturnNothing() {
+		log.info("Début test: createOrders_shouldThrowExternalServiceDown_whenLookupsReturnNothing");
+		OrderBatchService orderBatchService = new OrderBatchService(orderMapper, mock(OrderBatchRepository.class), orderMetrics,
+				userClient, productClient, stockReservationSaga, transactionTemplate, mock(Validator.class),
+				Duration.ofSeconds(3), 4, 500);
+		OrderRequestDTO request = OrderRequestDTO.builder().userId(1L).shippingAddress("Rue des lilas")
+				.orderItems(List.of(new OrderItemRequestDTO(5L, 2))).build();
+		when(userClient.isUserExistAsync(1L)).thenReturn(Mono.just(true));
+		when(productClient.getProductsAsync(any())).thenReturn(Mono.empty());
+
+		assertThrows(ExternalServiceDownException.class, () -> orderBatchService.createOrders(List.of(request), 1L));
+		verifyNoInteractions(stockReservationSaga);
+		log.info("Fin test: createOrders_shouldThrowExternalServiceDown_whenLookupsReturnNothing\n\n\n");
+	}
+
 	@Test
 	void deleteOrder_shouldDelete_whenOrderExists() {
 		log.info("Début test: deleteOrder_shouldDelete_whenOrderExists");
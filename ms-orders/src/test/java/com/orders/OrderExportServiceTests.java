@@ -0,0 +1,123 @@
+package com.orders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.orders.application.service.OrderExportService;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.repository.OrderExportRow;
+import com.orders.domain.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+public class OrderExportServiceTests {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	private OrderExportService orderExportService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		orderExportService = new OrderExportService(orderRepository, objectMapper, 1);
+	}
+
+	private OrderExportRow row(Long orderId, String shippingAddress, Long itemId, String productName) {
+		Map<String, Object> values = new HashMap<>();
+		values.put("orderId", orderId);
+		values.put("userId", 7L);
+		values.put("orderDate", DATE);
+		values.put("status", OrderStatus.CONFIRMED);
+		values.put("totalAmount", BigDecimal.valueOf(30));
+		values.put("shippingAddress", shippingAddress);
+		values.put("createdAt", DATE);
+		values.put("updatedAt", DATE);
+		if (itemId != null) {
+			values.put("itemId", itemId);
+			values.put("productId", itemId * 10);
+			values.put("productName", productName);
+			values.put("unitPrice", BigDecimal.TEN);
+			values.put("quantity", 1);
+			values.put("subtotal", BigDecimal.TEN);
+		}
+		return projectionFactory.createProjection(OrderExportRow.class, values);
+	}
+
+	private String export(OrderExportService.ExportFormat format, OrderExportRow... rows) throws Exception {
+		when(orderRepository.streamForExport(any(), any(), any())).thenReturn(Stream.of(rows));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		orderExportService.exportOrders(format, null, null, null, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void exportOrders_shouldGroupItemsOfAnOrderOnOneNdjsonLine() throws Exception {
+		log.info("Début test: exportOrders_shouldGroupItemsOfAnOrderOnOneNdjsonLine");
+
+		String output = export(OrderExportService.ExportFormat.NDJSON,
+				row(1L, "Rue des lilas", 11L, "Produit A"),
+				row(1L, "Rue des lilas", 12L, "Produit B"),
+				row(2L, "Rue des roses", null, null));
+
+		String[] lines = output.split("\n");
+		assertEquals(2, lines.length);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals(1L, first.get("id").asLong());
+		assertEquals(2, first.get("orderItems").size());
+		assertEquals("Produit B", first.get("orderItems").get(1).get("productName").asText());
+		JsonNode second = objectMapper.readTree(lines[1]);
+		assertEquals(2L, second.get("id").asLong());
+		assertEquals(0, second.get("orderItems").size());
+		log.info("Fin test: exportOrders_shouldGroupItemsOfAnOrderOnOneNdjsonLine\n\n\n");
+	}
+
+	@Test
+	void exportOrders_shouldQuoteCsvFieldsContainingSeparatorsQuotesOrNewlines() throws Exception {
+		log.info("Début test: exportOrders_shouldQuoteCsvFieldsContainingSeparatorsQuotesOrNewlines");
+
+		String output = export(OrderExportService.ExportFormat.CSV,
+				row(1L, "12 rue \"Haute\", Lyon", 11L, "Produit\nA"),
+				row(1L, "12 rue \"Haute\", Lyon", 12L, "Produit B"));
+
+		assertTrue(output.startsWith("order_id,user_id,order_date,status,total_amount,shipping_address,"));
+		assertTrue(output.contains(",\"12 rue \"\"Haute\"\", Lyon\","));
+		assertTrue(output.contains(",\"Produit\nA\","));
+		assertTrue(output.contains(",Produit B,"));
+		log.info("Fin test: exportOrders_shouldQuoteCsvFieldsContainingSeparatorsQuotesOrNewlines\n\n\n");
+	}
+
+	@Test
+	void exportOrders_shouldPassFiltersToRepository() throws Exception {
+		log.info("Début test: exportOrders_shouldPassFiltersToRepository");
+		LocalDateTime from = DATE.minusDays(1);
+		when(orderRepository.streamForExport(OrderStatus.SHIPPED, from, DATE)).thenReturn(Stream.empty());
+
+		long exported = orderExportService.exportOrders(OrderExportService.ExportFormat.NDJSON, OrderStatus.SHIPPED, from, DATE, new ByteArrayOutputStream());
+
+		assertEquals(0, exported);
+		verify(orderRepository, times(1)).streamForExport(OrderStatus.SHIPPED, from, DATE);
+		log.info("Fin test: exportOrders_shouldPassFiltersToRepository\n\n\n");
+	}
+}
@@ -0,0 +1,410 @@
+package com.orders;
+
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OrderItem;
+import com.orders.domain.entity.UserOrderSummary;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import com.orders.domain.repository.OrderArchiveRepository;
+import com.orders.domain.repository.OrderBatchRepository;
+import com.orders.domain.repository.OrderDailyTotal;
+import com.orders.domain.repository.OrderExportRow;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OrderSpecifications;
+import com.orders.domain.repository.OrderStatusRow;
+import com.orders.domain.repository.ProductQuantity;
+import com.orders.domain.repository.UserOrderSummaryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderBatchRepository.class, OrderArchiveRepository.class})
+public class OrderRepositoryTests {
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private UserOrderSummaryRepository userOrderSummaryRepository;
+
+	@Autowired
+	private OrderBatchRepository orderBatchRepository;
+
+	@Autowired
+	private OrderArchiveRepository orderArchiveRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private void createOrders(int count, Long userId, OrderStatus status) {
+		for (int i = 0; i < count; i++) {
+			Order order = Order.builder()
+					.userId(userId)
+					.status(status)
+					.orderDate(LocalDateTime.now())
+					.totalAmount(BigDecimal.valueOf(20))
+					.shippingAddress("Rue des lilas")
+					.orderItems(new ArrayList<>())
+					.build();
+			for (int j = 0; j < 2; j++) {
+				order.getOrderItems().add(OrderItem.builder()
+						.order(order)
+						.productId((long) j + 1)
+						.productName("Produit " + j)
+						.quantity(1)
+						.unitPrice(BigDecimal.TEN)
+						.subtotal(BigDecimal.TEN)
+						.build());
+			}
+			orderRepository.save(order);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private long countStatements(Runnable query) {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		query.run();
+		long count = statistics.getPrepareStatementCount();
+		entityManager.clear();
+		return count;
+	}
+
+	private static void touchItems(List<Order> orders) {
+		orders.forEach(order -> order.getOrderItems().size());
+	}
+
+	@Test
+	void findAll_shouldUseConstantStatementCount_whenOrdersGrow() {
+		log.info("Début test: findAll_shouldUseConstantStatementCount_whenOrdersGrow");
+		createOrders(2, 1L, OrderStatus.PENDING);
+		long fewOrders = countStatements(() -> touchItems(orderRepository.findAll()));
+
+		createOrders(10, 1L, OrderStatus.PENDING);
+		long manyOrders = countStatements(() -> touchItems(orderRepository.findAll()));
+
+		assertEquals(fewOrders, manyOrders);
+		assertEquals(1, manyOrders);
+		log.info("Fin test: findAll_shouldUseConstantStatementCount_whenOrdersGrow\n\n\n");
+	}
+
+	@Test
+	void findByUserIdAndStatus_shouldUseConstantStatementCount_whenOrdersGrow() {
+		log.info("Début test: findByUserIdAndStatus_shouldUseConstantStatementCount_whenOrdersGrow");
+		createOrders(2, 7L, OrderStatus.SHIPPED);
+		long fewByUser = countStatements(() -> touchItems(orderRepository.findByUserId(7L)));
+		long fewByStatus = countStatements(() -> touchItems(orderRepository.findByStatus(OrderStatus.SHIPPED)));
+
+		createOrders(10, 7L, OrderStatus.SHIPPED);
+		long manyByUser = countStatements(() -> touchItems(orderRepository.findByUserId(7L)));
+		long manyByStatus = countStatements(() -> touchItems(orderRepository.findByStatus(OrderStatus.SHIPPED)));
+
+		assertEquals(fewByUser, manyByUser);
+		assertEquals(fewByStatus, manyByStatus);
+		log.info("Fin test: findByUserIdAndStatus_shouldUseConstantStatementCount_whenOrdersGrow\n\n\n");
+	}
+
+	@Test
+	void sumTotalAmountByStatus_shouldAggregateOrdersOfTheRange() {
+		log.info("Début test: sumTotalAmountByStatus_shouldAggregateOrdersOfTheRange");
+		createOrders(3, 1L, OrderStatus.PENDING);
+		createOrders(1, 1L, OrderStatus.CANCELLED);
+		LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+
+		Map<OrderStatus, BigDecimal> totals = new HashMap<>();
+		orderRepository.sumTotalAmountByStatus(startOfDay, startOfDay.plusDays(1))
+				.forEach(total -> totals.put(total.getStatus(), total.getTotalAmount()));
+
+		assertEquals(0, BigDecimal.valueOf(60).compareTo(totals.get(OrderStatus.PENDING)));
+		assertEquals(0, BigDecimal.valueOf(20).compareTo(totals.get(OrderStatus.CANCELLED)));
+		assertFalse(totals.containsKey(OrderStatus.SHIPPED));
+
+		List<OrderDailyTotal> days = orderRepository.sumTotalAmountByDay(startOfDay, startOfDay.plusDays(1));
+		assertEquals(1, days.size());
+		assertEquals(LocalDate.now(), days.get(0).getDay());
+		assertEquals(4L, days.get(0).getOrderCount());
+		log.info("Fin test: sumTotalAmountByStatus_shouldAggregateOrdersOfTheRange\n\n\n");
+	}
+
+	@Test
+	void userOrderSummaries_shouldPageByCursorFromMostRecent() {
+		log.info("Début test: userOrderSummaries_shouldPageByCursorFromMostRecent");
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		for (long orderId = 1; orderId <= 5; orderId++) {
+			userOrderSummaryRepository.save(UserOrderSummary.builder()
+					.orderId(orderId)
+					.userId(3L)
+					.orderDate(now.minusDays(orderId / 2))
+					.status(OrderStatus.PENDING)
+					.totalAmount(BigDecimal.TEN)
+					.itemCount(1)
+					.updatedAt(now)
+					.build());
+		}
+		entityManager.flush();
+
+		List<UserOrderSummary> firstPage = userOrderSummaryRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(3L, Limit.of(2));
+		UserOrderSummary last = firstPage.get(1);
+		List<UserOrderSummary> secondPage = userOrderSummaryRepository.findPageAfter(3L, last.getOrderDate(), last.getOrderId(), Limit.of(2));
+		last = secondPage.get(1);
+		List<UserOrderSummary> thirdPage = userOrderSummaryRepository.findPageAfter(3L, last.getOrderDate(), last.getOrderId(), Limit.of(2));
+
+		assertEquals(List.of(1L, 3L), firstPage.stream().map(UserOrderSummary::getOrderId).toList());
+		assertEquals(List.of(2L, 5L), secondPage.stream().map(UserOrderSummary::getOrderId).toList());
+		assertEquals(List.of(4L), thirdPage.stream().map(UserOrderSummary::getOrderId).toList());
+		log.info("Fin test: userOrderSummaries_shouldPageByCursorFromMostRecent\n\n\n");
+	}
+
+	@Test
+	void backfillFromOrders_shouldCreateMissingSummariesOnlyOnce() {
+		log.info("Début test: backfillFromOrders_shouldCreateMissingSummariesOnlyOnce");
+		createOrders(2, 7L, OrderStatus.CONFIRMED);
+
+		int created = userOrderSummaryRepository.backfillFromOrders(LocalDateTime.now());
+		int createdAgain = userOrderSummaryRepository.backfillFromOrders(LocalDateTime.now());
+		List<UserOrderSummary> summaries = userOrderSummaryRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(7L, Limit.of(10));
+
+		assertEquals(2, created);
+		assertEquals(0, createdAgain);
+		assertEquals(2, summaries.size());
+		assertTrue(summaries.stream().allMatch(summary -> summary.getItemCount() == 2 && summary.getStatus() == OrderStatus.CONFIRMED));
+		log.info("Fin test: backfillFromOrders_shouldCreateMissingSummariesOnlyOnce\n\n\n");
+	}
+
+	@Test
+	void insertOrders_shouldPersistOrdersItemsAndHistoryInBatches() {
+		log.info("Début test: insertOrders_shouldPersistOrdersItemsAndHistoryInBatches");
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Order order = Order.builder()
+					.userId(9L)
+					.status(OrderStatus.PENDING)
+					.orderDate(now)
+					.totalAmount(BigDecimal.TEN)
+					.shippingAddress("Rue des lilas")
+					.createdAt(now)
+					.updatedAt(now)
+					.orderItems(new ArrayList<>())
+					.build();
+			order.getOrderItems().add(OrderItem.builder()
+					.order(order)
+					.productId(1L)
+					.productName("Produit")
+					.quantity(1)
+					.unitPrice(BigDecimal.TEN)
+					.subtotal(BigDecimal.TEN)
+					.build());
+			orders.add(order);
+		}
+
+		orderBatchRepository.insertOrders(orders);
+		entityManager.clear();
+
+		assertTrue(orders.stream().allMatch(order -> order.getId() != null));
+		List<Order> saved = orderRepository.findByUserId(9L);
+		assertEquals(3, saved.size());
+		assertTrue(saved.stream().allMatch(order -> order.getOrderItems().size() == 1));
+		assertEquals(3, userOrderSummaryRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(9L, Limit.of(10)).size());
+		log.info("Fin test: insertOrders_shouldPersistOrdersItemsAndHistoryInBatches\n\n\n");
+	}
+
+	@Test
+	void save_shouldBatchItemInserts_whenOrderHasTwentyItems() {
+		log.info("Début test: save_shouldBatchItemInserts_whenOrderHasTwentyItems");
+		Order order = Order.builder()
+				.userId(1L)
+				.status(OrderStatus.PENDING)
+				.orderDate(LocalDateTime.now())
+				.totalAmount(BigDecimal.valueOf(200))
+				.shippingAddress("Rue des lilas")
+				.orderItems(new ArrayList<>())
+				.build();
+		for (int i = 0; i < 20; i++) {
+			order.getOrderItems().add(OrderItem.builder()
+					.order(order)
+					.productId((long) i + 1)
+					.productName("Produit " + i)
+					.quantity(1)
+					.unitPrice(BigDecimal.TEN)
+					.subtotal(BigDecimal.TEN)
+					.build());
+		}
+
+		// Un appel par séquence, puis un INSERT préparé pour la commande et un seul, exécuté en lot, pour les 20 lignes
+		long statements = countStatements(() -> {
+			orderRepository.save(order);
+			entityManager.flush();
+		});
+
+		assertTrue(statements <= 4, "Les 21 INSERT auraient dû être envoyés par lots, requêtes préparées: " + statements);
+		assertEquals(20, orderRepository.findById(order.getId()).orElseThrow().getOrderItems().size());
+		log.info("Fin test: save_shouldBatchItemInserts_whenOrderHasTwentyItems\n\n\n");
+	}
+
+	@Test
+	void updateStatuses_shouldSkipCancelledAndDeliveredOrders() {
+		log.info("Début test: updateStatuses_shouldSkipCancelledAndDeliveredOrders");
+		createOrders(2, 3L, OrderStatus.CONFIRMED);
+		createOrders(1, 3L, OrderStatus.CANCELLED);
+		createOrders(1, 3L, OrderStatus.DELIVERED);
+		List<Long> ids = orderRepository.findByUserId(3L).stream().map(Order::getId).toList();
+		entityManager.clear();
+
+		int updated = orderRepository.updateStatuses(ids, OrderStatus.SHIPPED,
+				OrderStatus.allowedSourcesOf(OrderStatus.SHIPPED), LocalDateTime.now());
+
+		assertEquals(2, updated);
+		Map<OrderStatus, Long> counts = new HashMap<>();
+		orderRepository.findStatusRows(ids).forEach(row -> counts.merge(row.getStatus(), 1L, Long::sum));
+		assertEquals(2L, counts.get(OrderStatus.SHIPPED));
+		assertEquals(1L, counts.get(OrderStatus.CANCELLED));
+		assertEquals(1L, counts.get(OrderStatus.DELIVERED));
+		log.info("Fin test: updateStatuses_shouldSkipCancelledAndDeliveredOrders\n\n\n");
+	}
+
+	@Test
+	void updateStatus_shouldApplyOnlyWithCurrentVersionAndAllowedSource() {
+		log.info("Début test: updateStatus_shouldApplyOnlyWithCurrentVersionAndAllowedSource");
+		createOrders(1, 4L, OrderStatus.PENDING);
+		Long id = orderRepository.findByUserId(4L).get(0).getId();
+		entityManager.clear();
+		OrderStatusRow row = orderRepository.findStatusRow(id).orElseThrow();
+
+		assertEquals(1, orderRepository.updateStatus(id, OrderStatus.CONFIRMED,
+				OrderStatus.allowedSourcesOf(OrderStatus.CONFIRMED), row.getVersion(), LocalDateTime.now()));
+		// Même version lue : la commande a changé entre-temps, la mise à jour est refusée
+		assertEquals(0, orderRepository.updateStatus(id, OrderStatus.SHIPPED,
+				OrderStatus.allowedSourcesOf(OrderStatus.SHIPPED), row.getVersion(), LocalDateTime.now()));
+
+		OrderStatusRow updated = orderRepository.findStatusRow(id).orElseThrow();
+		assertEquals(OrderStatus.CONFIRMED, updated.getStatus());
+		assertEquals(row.getVersion() + 1, updated.getVersion());
+
+		orderRepository.updateStatus(id, OrderStatus.DELIVERED,
+				OrderStatus.allowedSourcesOf(OrderStatus.DELIVERED), updated.getVersion(), LocalDateTime.now());
+		assertEquals(0, orderRepository.updateStatus(id, OrderStatus.PENDING,
+				OrderStatus.allowedSourcesOf(OrderStatus.PENDING), updated.getVersion() + 1, LocalDateTime.now()));
+		log.info("Fin test: updateStatus_shouldApplyOnlyWithCurrentVersionAndAllowedSource\n\n\n");
+	}
+
+	@Test
+	void archive_shouldMoveTerminalOrdersAndKeepThemReadable() {
+		log.info("Début test: archive_shouldMoveTerminalOrdersAndKeepThemReadable");
+		createOrders(2, 5L, OrderStatus.DELIVERED);
+		createOrders(1, 5L, OrderStatus.PENDING);
+
+		List<Long> ids = orderArchiveRepository.findArchivableIds(LocalDateTime.now().plusMinutes(1), 10);
+		OrderArchiveRepository.ArchiveResult result = orderArchiveRepository.archive(ids);
+
+		assertEquals(2, ids.size());
+		assertEquals(2, result.orders());
+		assertEquals(4, result.orderItems());
+		assertEquals(1, orderRepository.findByUserId(5L).size());
+		Order archived = orderArchiveRepository.findById(ids.get(0)).orElseThrow();
+		assertEquals(OrderStatus.DELIVERED, archived.getStatus());
+		assertEquals(2, archived.getOrderItems().size());
+		assertTrue(orderArchiveRepository.findArchivableIds(LocalDateTime.now().plusMinutes(1), 10).isEmpty());
+		log.info("Fin test: archive_shouldMoveTerminalOrdersAndKeepThemReadable\n\n\n");
+	}
+
+	@Test
+	void findAll_shouldCombineSearchCriteriaAndPage() {
+		log.info("Début test: findAll_shouldCombineSearchCriteriaAndPage");
+		createOrders(3, 6L, OrderStatus.PENDING);
+		createOrders(2, 6L, OrderStatus.SHIPPED);
+		createOrders(4, 8L, OrderStatus.PENDING);
+
+		Specification<Order> criteria = OrderSpecifications.hasUserId(6L)
+				.and(OrderSpecifications.hasStatusIn(List.of(OrderStatus.PENDING, OrderStatus.SHIPPED)))
+				.and(OrderSpecifications.orderedBetween(LocalDate.now().atStartOfDay(), null))
+				.and(OrderSpecifications.totalAmountBetween(BigDecimal.TEN, null))
+				.and(OrderSpecifications.containsProduct(2L));
+		Page<Order> firstPage = orderRepository.findAll(criteria, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+		assertEquals(5, firstPage.getTotalElements());
+		assertEquals(3, firstPage.getTotalPages());
+		assertEquals(2, firstPage.getContent().size());
+		assertTrue(firstPage.getContent().get(0).getId() > firstPage.getContent().get(1).getId());
+		assertEquals(0, orderRepository.findAll(OrderSpecifications.hasUserId(6L)
+				.and(OrderSpecifications.containsProduct(99L))).size());
+		log.info("Fin test: findAll_shouldCombineSearchCriteriaAndPage\n\n\n");
+	}
+
+	@Test
+	void claimStockRelease_shouldAttachOrdersToSingleBatchAndSumQuantities() {
+		log.info("Début test: claimStockRelease_shouldAttachOrdersToSingleBatchAndSumQuantities");
+		createOrders(2, 9L, OrderStatus.CANCELLED);
+		createOrders(1, 9L, OrderStatus.CONFIRMED);
+		orderRepository.findByUserId(9L).forEach(order -> order.setStockStatus(StockReservationStatus.RESERVED));
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Long> ids = orderRepository.findStockReleasableIds(Limit.of(10));
+
+		assertEquals(2, ids.size());
+		assertEquals(2, orderRepository.claimStockRelease(ids, 42L, LocalDateTime.now()));
+		// Commandes déjà rattachées au lot 42 : un second lot ne les reprend pas
+		assertEquals(0, orderRepository.claimStockRelease(ids, 43L, LocalDateTime.now()));
+		assertTrue(orderRepository.findStockReleasableIds(Limit.of(10)).isEmpty());
+
+		List<ProductQuantity> quantities = orderRepository.sumQuantitiesByReleaseBatch(42L);
+		assertEquals(2, quantities.size());
+		assertEquals(1L, quantities.get(0).getProductId());
+		assertEquals(2L, quantities.get(0).getQuantity());
+
+		assertEquals(2, orderRepository.markStockReleased(42L, LocalDateTime.now()));
+		assertEquals(0, orderRepository.markStockReleased(42L, LocalDateTime.now()));
+		assertEquals(StockReservationStatus.RELEASED, orderRepository.findById(ids.get(0)).orElseThrow().getStockStatus());
+		log.info("Fin test: claimStockRelease_shouldAttachOrdersToSingleBatchAndSumQuantities\n\n\n");
+	}
+
+	@Test
+	void streamForExport_shouldApplyStatusAndPeriodFilters() {
+		log.info("Début test: streamForExport_shouldApplyStatusAndPeriodFilters");
+		createOrders(2, 10L, OrderStatus.SHIPPED);
+		createOrders(1, 10L, OrderStatus.PENDING);
+		LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+		LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+		List<OrderExportRow> shipped;
+		try (Stream<OrderExportRow> rows = orderRepository.streamForExport(OrderStatus.SHIPPED, from, to)) {
+			shipped = rows.filter(row -> row.getUserId() == 10L).toList();
+		}
+		long outOfPeriod;
+		try (Stream<OrderExportRow> rows = orderRepository.streamForExport(null, to, null)) {
+			outOfPeriod = rows.filter(row -> row.getUserId() == 10L).count();
+		}
+
+		// Une ligne par article, triées par commande
+		assertEquals(4, shipped.size());
+		assertTrue(shipped.stream().allMatch(row -> row.getStatus() == OrderStatus.SHIPPED));
+		assertTrue(shipped.get(0).getOrderId() <= shipped.get(3).getOrderId());
+		assertEquals(0, outOfPeriod);
+		log.info("Fin test: streamForExport_shouldApplyStatusAndPeriodFilters\n\n\n");
+	}
+}
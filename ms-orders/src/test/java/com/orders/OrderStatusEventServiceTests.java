@@ -0,0 +1,122 @@
+package com.orders;
+
+import com.orders.application.dto.OrderStatusEventDTO;
+import com.orders.application.service.OrderStatusEventService;
+import com.orders.domain.enums.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+public class OrderStatusEventServiceTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private OrderStatusEventService orderStatusEventService;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		orderStatusEventService = new OrderStatusEventService(meterRegistry, 8, 50, Duration.ofMinutes(10), 1000, Duration.ofMinutes(30));
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderStatusEventService.shutdown();
+	}
+
+	/**
+	 * Événements envoyés à un émetteur, dans l'ordre, une fois {@code count} envois reçus.
+	 */
+	private static List<OrderStatusEventDTO> sentEvents(SseEmitter emitter, int count) throws Exception {
+		ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+		verify(emitter, timeout(2000).times(count)).send(captor.capture());
+		return captor.getAllValues().stream()
+				.flatMap(builder -> builder.build().stream())
+				.map(data -> data.getData() instanceof OrderStatusEventDTO event ? event : null)
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+	@Test
+	void subscribe_shouldReplayOnlyEventsAfterLastEventId() throws Exception {
+		log.info("Début test: subscribe_shouldReplayOnlyEventsAfterLastEventId");
+		orderStatusEventService.publish(1L, 10L, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+		orderStatusEventService.publish(1L, 11L, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+		orderStatusEventService.publish(1L, 12L, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+
+		try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+			orderStatusEventService.subscribe(1L, 0L);
+			List<OrderStatusEventDTO> all = sentEvents(emitters.constructed().get(0), 3);
+			assertEquals(List.of(10L, 11L, 12L), all.stream().map(OrderStatusEventDTO::getOrderId).toList());
+
+			orderStatusEventService.subscribe(1L, all.get(0).getEventId());
+			List<OrderStatusEventDTO> replayed = sentEvents(emitters.constructed().get(1), 2);
+			assertEquals(List.of(11L, 12L), replayed.stream().map(OrderStatusEventDTO::getOrderId).toList());
+		}
+		log.info("Fin test: subscribe_shouldReplayOnlyEventsAfterLastEventId\n\n\n");
+	}
+
+	@Test
+	void publish_shouldDisconnectSubscriber_whenItsQueueOverflows() throws Exception {
+		log.info("Début test: publish_shouldDisconnectSubscriber_whenItsQueueOverflows");
+		CountDownLatch blocked = new CountDownLatch(1);
+		// Le premier envoi reste bloqué : la file de 8 événements se remplit puis déborde
+		try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class, (emitter, context) ->
+				doAnswer(invocation -> {
+					blocked.await();
+					return null;
+				}).when(emitter).send(any(SseEmitter.SseEventBuilder.class)))) {
+			orderStatusEventService.subscribe(1L, null);
+			SseEmitter emitter = emitters.constructed().get(0);
+			for (long orderId = 10; orderId < 20; orderId++) {
+				orderStatusEventService.publish(1L, orderId, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+			}
+
+			verify(emitter, timeout(2000)).complete();
+			assertEquals(1.0, meterRegistry.get("orders.events.subscribers.dropped").counter().count());
+			assertEquals(0.0, meterRegistry.get("orders.events.subscribers").gauge().value());
+		} finally {
+			blocked.countDown();
+		}
+		log.info("Fin test: publish_shouldDisconnectSubscriber_whenItsQueueOverflows\n\n\n");
+	}
+
+	@Test
+	void publish_shouldDeliverOnlyAfterCommit() throws Exception {
+		log.info("Début test: publish_shouldDeliverOnlyAfterCommit");
+		try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class)) {
+			orderStatusEventService.subscribe(1L, null);
+			SseEmitter emitter = emitters.constructed().get(0);
+
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				orderStatusEventService.publish(1L, 10L, OrderStatus.PENDING, OrderStatus.SHIPPED);
+				verify(emitter, after(200).never()).send(any(SseEmitter.SseEventBuilder.class));
+
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+
+			List<OrderStatusEventDTO> sent = sentEvents(emitter, 1);
+			assertEquals(10L, sent.get(0).getOrderId());
+			assertEquals(OrderStatus.SHIPPED, sent.get(0).getStatus());
+		}
+		log.info("Fin test: publish_shouldDeliverOnlyAfterCommit\n\n\n");
+	}
+}
@@ -0,0 +1,88 @@
+package com.orders;
+
+import com.orders.application.dto.OrderedProductDTO;
+import com.orders.infrastructure.client.ProductSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class ProductSnapshotCacheTests {
+
+	private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 1, 15, 10, 0);
+
+	private ProductSnapshotCache productSnapshotCache;
+
+	@BeforeEach
+	void setUp() {
+		productSnapshotCache = new ProductSnapshotCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+	}
+
+	private static OrderedProductDTO product(BigDecimal price, LocalDateTime updatedAt) {
+		return OrderedProductDTO.builder()
+				.id(5L)
+				.name("Clavier")
+				.price(price)
+				.stock(10)
+				.updatedAt(updatedAt)
+				.build();
+	}
+
+	private BigDecimal cachedPrice() {
+		return productSnapshotCache.getAll(List.of(5L)).get(5L).getPrice();
+	}
+
+	@Test
+	void refresh_shouldKeepCurrentSnapshot_whenCandidateIsOlder() {
+		log.info("Début test: refresh_shouldKeepCurrentSnapshot_whenCandidateIsOlder");
+		productSnapshotCache.refresh(product(BigDecimal.TEN, UPDATED_AT));
+
+		productSnapshotCache.refresh(product(BigDecimal.ONE, UPDATED_AT.minusMinutes(1)));
+
+		assertEquals(BigDecimal.TEN, cachedPrice());
+		log.info("Fin test: refresh_shouldKeepCurrentSnapshot_whenCandidateIsOlder\n\n\n");
+	}
+
+	@Test
+	void refresh_shouldReplaceSnapshot_whenCandidateIsNewerOrAsRecent() {
+		log.info("Début test: refresh_shouldReplaceSnapshot_whenCandidateIsNewerOrAsRecent");
+		productSnapshotCache.refresh(product(BigDecimal.TEN, UPDATED_AT));
+
+		productSnapshotCache.refresh(product(BigDecimal.ONE, UPDATED_AT));
+		assertEquals(BigDecimal.ONE, cachedPrice());
+
+		productSnapshotCache.refresh(product(BigDecimal.TWO, UPDATED_AT.plusMinutes(1)));
+		assertEquals(BigDecimal.TWO, cachedPrice());
+		log.info("Fin test: refresh_shouldReplaceSnapshot_whenCandidateIsNewerOrAsRecent\n\n\n");
+	}
+
+	@Test
+	void refresh_shouldReplaceSnapshot_whenAVersionIsUnknown() {
+		log.info("Début test: refresh_shouldReplaceSnapshot_whenAVersionIsUnknown");
+		productSnapshotCache.refresh(product(BigDecimal.TEN, UPDATED_AT));
+
+		productSnapshotCache.refresh(product(BigDecimal.ONE, null));
+
+		assertEquals(BigDecimal.ONE, cachedPrice());
+		log.info("Fin test: refresh_shouldReplaceSnapshot_whenAVersionIsUnknown\n\n\n");
+	}
+
+	@Test
+	void invalidate_shouldRemoveSnapshot() {
+		log.info("Début test: invalidate_shouldRemoveSnapshot");
+		productSnapshotCache.refresh(product(BigDecimal.TEN, UPDATED_AT));
+
+		productSnapshotCache.invalidate(5L);
+
+		assertTrue(productSnapshotCache.getAll(List.of(5L)).isEmpty());
+		log.info("Fin test: invalidate_shouldRemoveSnapshot\n\n\n");
+	}
+}
@@ -0,0 +1,154 @@
+package com.orders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.dto.BulkStatusUpdateRequestDTO;
+import com.orders.application.dto.BulkStatusUpdateResponseDTO;
+import com.orders.application.service.BulkStatusUpdateService;
+import com.orders.application.service.StockReleaseService;
+import com.orders.domain.entity.StockReleaseBatch;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.OutboxStatus;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.StockReleaseBatchRepository;
+import com.orders.infrastructure.client.ProductClient;
+import com.orders.infrastructure.client.ServiceTokenProvider;
+import com.orders.infrastructure.exception.InvalidJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+public class StockReleaseServiceTests {
+
+	private static final String OPERATION_KEY = "stock-release-c9f0f895";
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private StockReleaseBatchRepository stockReleaseBatchRepository;
+
+	@Mock
+	private BulkStatusUpdateService bulkStatusUpdateService;
+
+	@Mock
+	private ProductClient productClient;
+
+	@Mock
+	private ServiceTokenProvider serviceTokenProvider;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	private SimpleMeterRegistry meterRegistry;
+	private StockReleaseService stockReleaseService;
+	private StockReleaseBatch batch;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		meterRegistry = new SimpleMeterRegistry();
+		stockReleaseService = new StockReleaseService(orderRepository, stockReleaseBatchRepository, bulkStatusUpdateService,
+				productClient, serviceTokenProvider, new ObjectMapper(), transactionTemplate, meterRegistry,
+				Duration.ofMinutes(30), 2, 5, 3, Duration.ofSeconds(5), Duration.ofMinutes(10), Duration.ofMinutes(2));
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+		when(serviceTokenProvider.getToken()).thenReturn("service-token");
+
+		batch = StockReleaseBatch.builder()
+				.id(4L)
+				.payload("[{\"productId\":5,\"quantity\":3}]")
+				.operationKey(OPERATION_KEY)
+				.orderCount(2)
+				.status(OutboxStatus.PENDING)
+				.attempts(0)
+				.nextAttemptAt(LocalDateTime.now())
+				.build();
+		when(stockReleaseBatchRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(batch));
+		when(stockReleaseBatchRepository.claim(eq(4L), any(), any())).thenReturn(1);
+	}
+
+	@Test
+	void expirePendingOrders_shouldCancelExpiredPendingOrdersBatchByBatch() {
+		log.info("Début test: expirePendingOrders_shouldCancelExpiredPendingOrdersBatchByBatch");
+		when(orderRepository.findIdsByFilter(eq(OrderStatus.PENDING), isNull(), any(), any()))
+				.thenReturn(List.of(1L, 2L), List.of(3L));
+		when(bulkStatusUpdateService.updateStatuses(any())).thenAnswer(invocation -> BulkStatusUpdateResponseDTO.builder()
+				.updatedCount(invocation.<BulkStatusUpdateRequestDTO>getArgument(0).getOrderIds().size())
+				.build());
+
+		stockReleaseService.expirePendingOrders();
+
+		ArgumentCaptor<BulkStatusUpdateRequestDTO> captor = ArgumentCaptor.forClass(BulkStatusUpdateRequestDTO.class);
+		verify(bulkStatusUpdateService, times(2)).updateStatuses(captor.capture());
+		BulkStatusUpdateRequestDTO first = captor.getAllValues().get(0);
+		assertEquals(OrderStatus.CANCELLED, first.getStatus());
+		assertEquals(OrderStatus.PENDING, first.getCurrentStatus());
+		assertEquals(List.of(1L, 2L), first.getOrderIds());
+		assertEquals(List.of(3L), captor.getAllValues().get(1).getOrderIds());
+		assertEquals(3.0, meterRegistry.get("orders.stock-release.expired").counter().count());
+		log.info("Fin test: expirePendingOrders_shouldCancelExpiredPendingOrdersBatchByBatch\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldReleaseStockWithBatchOperationKey() {
+		log.info("Début test: dispatchPending_shouldReleaseStockWithBatchOperationKey");
+		when(productClient.releaseStock(anyList(), eq("service-token"), eq(OPERATION_KEY))).thenReturn(List.of());
+
+		stockReleaseService.dispatchPending();
+
+		verify(orderRepository, times(1)).markStockReleased(eq(4L), any());
+		assertEquals(OutboxStatus.DONE, batch.getStatus());
+		log.info("Fin test: dispatchPending_shouldReleaseStockWithBatchOperationKey\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldRetryWithBackoff_whenReleaseFails() {
+		log.info("Début test: dispatchPending_shouldRetryWithBackoff_whenReleaseFails");
+		when(productClient.releaseStock(anyList(), any(), any())).thenThrow(new InvalidJwtException("product-service"));
+		batch.setAttempts(1);
+
+		stockReleaseService.dispatchPending();
+
+		verify(serviceTokenProvider, times(1)).invalidate();
+		verify(orderRepository, never()).markStockReleased(any(), any());
+		assertEquals(OutboxStatus.PENDING, batch.getStatus());
+		assertEquals(2, batch.getAttempts());
+		// Deuxième essai en échec : 5s * 2
+		assertTrue(batch.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(9)));
+		log.info("Fin test: dispatchPending_shouldRetryWithBackoff_whenReleaseFails\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldMarkBatchFailed_whenAttemptsAreExhausted() {
+		log.info("Début test: dispatchPending_shouldMarkBatchFailed_whenAttemptsAreExhausted");
+		when(productClient.releaseStock(anyList(), any(), any())).thenThrow(new IllegalStateException("Délai dépassé"));
+		batch.setAttempts(2);
+
+		stockReleaseService.dispatchPending();
+
+		verify(orderRepository, never()).markStockReleased(any(), any());
+		assertEquals(OutboxStatus.FAILED, batch.getStatus());
+		assertEquals(3, batch.getAttempts());
+		assertEquals("Délai dépassé", batch.getLastError());
+		assertEquals(1.0, meterRegistry.get("orders.stock-release.batches").tag("result", "failed").counter().count());
+		log.info("Fin test: dispatchPending_shouldMarkBatchFailed_whenAttemptsAreExhausted\n\n\n");
+	}
+}
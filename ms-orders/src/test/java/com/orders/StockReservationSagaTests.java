@@ -0,0 +1,238 @@
+package com.orders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orders.application.service.OrderService;
+import com.orders.application.service.StockReservationSaga;
+import com.orders.domain.entity.Order;
+import com.orders.domain.entity.OutboxEvent;
+import com.orders.domain.enums.OrderStatus;
+import com.orders.domain.enums.OutboxEventType;
+import com.orders.domain.enums.OutboxStatus;
+import com.orders.domain.enums.StockReservationStatus;
+import com.orders.domain.repository.OrderRepository;
+import com.orders.domain.repository.OutboxEventRepository;
+import com.orders.infrastructure.client.ProductClient;
+import com.orders.infrastructure.client.ServiceTokenProvider;
+import com.orders.infrastructure.exception.InvalidJwtException;
+import com.orders.infrastructure.exception.ProductOutOfStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+public class StockReservationSagaTests {
+
+	private static final String OPERATION_KEY = "reservation-8f14e45f";
+
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private OrderService orderService;
+
+	@Mock
+	private ProductClient productClient;
+
+	@Mock
+	private ServiceTokenProvider serviceTokenProvider;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	private SimpleMeterRegistry meterRegistry;
+	private StockReservationSaga stockReservationSaga;
+	private OutboxEvent event;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		meterRegistry = new SimpleMeterRegistry();
+		stockReservationSaga = new StockReservationSaga(outboxEventRepository, orderRepository, orderService, productClient,
+				serviceTokenProvider, new ObjectMapper(), transactionTemplate, meterRegistry,
+				50, 3, Duration.ofSeconds(2), Duration.ofMinutes(5), Duration.ofMinutes(1), Duration.ofMinutes(30));
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+		when(serviceTokenProvider.getToken()).thenReturn("service-token");
+		when(outboxEventRepository.claim(eq(1L), any(), any())).thenReturn(1);
+
+		order = Order.builder()
+				.id(10L)
+				.userId(1L)
+				.status(OrderStatus.PENDING)
+				.shippingAddress("Rue des lilas")
+				.build();
+		when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+
+		event = OutboxEvent.builder()
+				.id(1L)
+				.orderId(10L)
+				.eventType(OutboxEventType.STOCK_RESERVATION)
+				.payload("[{\"productId\":5,\"quantity\":2}]")
+				.operationKey(OPERATION_KEY)
+				.status(OutboxStatus.PENDING)
+				.attempts(0)
+				.nextAttemptAt(LocalDateTime.now())
+				.build();
+		when(outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(event));
+	}
+
+	@Test
+	void dispatchPending_shouldMarkStockReserved_whenReservationSucceeds() {
+		log.info("Début test: dispatchPending_shouldMarkStockReserved_whenReservationSucceeds");
+		when(productClient.reserveStock(anyList(), eq("service-token"), eq(OPERATION_KEY))).thenReturn(List.of());
+
+		stockReservationSaga.dispatchPending();
+
+		verify(orderService, times(1)).markStockReserved(10L);
+		verify(orderService, never()).rejectStockReservation(any());
+		assertEquals(OutboxStatus.DONE, event.getStatus());
+		log.info("Fin test: dispatchPending_shouldMarkStockReserved_whenReservationSucceeds\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldRejectReservation_whenStockIsInsufficient() {
+		log.info("Début test: dispatchPending_shouldRejectReservation_whenStockIsInsufficient");
+		when(productClient.reserveStock(anyList(), any(), any())).thenThrow(new ProductOutOfStockException("Stock insuffisant"));
+
+		stockReservationSaga.dispatchPending();
+
+		verify(orderService, times(1)).rejectStockReservation(10L);
+		verify(orderService, never()).markStockReserved(any());
+		assertEquals(OutboxStatus.FAILED, event.getStatus());
+		log.info("Fin test: dispatchPending_shouldRejectReservation_whenStockIsInsufficient\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldRetryWithBackoff_whenProductServiceFails() {
+		log.info("Début test: dispatchPending_shouldRetryWithBackoff_whenProductServiceFails");
+		when(productClient.reserveStock(anyList(), any(), any())).thenThrow(new IllegalStateException("Délai dépassé"));
+		event.setAttempts(1);
+
+		stockReservationSaga.dispatchPending();
+
+		assertEquals(OutboxStatus.PENDING, event.getStatus());
+		assertEquals(2, event.getAttempts());
+		// Deuxième essai en échec : 2s * 2
+		assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(3)));
+		verify(orderService, never()).rejectStockReservation(any());
+		verify(outboxEventRepository, times(1)).save(event);
+		log.info("Fin test: dispatchPending_shouldRetryWithBackoff_whenProductServiceFails\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldRenewTokenAndRetry_whenTokenIsRejected() {
+		log.info("Début test: dispatchPending_shouldRenewTokenAndRetry_whenTokenIsRejected");
+		when(productClient.reserveStock(anyList(), any(), any())).thenThrow(new InvalidJwtException("product-service"));
+
+		stockReservationSaga.dispatchPending();
+
+		verify(serviceTokenProvider, times(1)).invalidate();
+		verify(orderService, never()).rejectStockReservation(any());
+		assertEquals(OutboxStatus.PENDING, event.getStatus());
+		assertEquals(1, event.getAttempts());
+		log.info("Fin test: dispatchPending_shouldRenewTokenAndRetry_whenTokenIsRejected\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldSkipOrder_whenCancelledBeforeAnySend() {
+		log.info("Début test: dispatchPending_shouldSkipOrder_whenCancelledBeforeAnySend");
+		order.setStatus(OrderStatus.CANCELLED);
+
+		stockReservationSaga.dispatchPending();
+
+		verifyNoInteractions(productClient);
+		verify(orderService, never()).abandonStockReservation(any());
+		assertEquals(OutboxStatus.DONE, event.getStatus());
+		log.info("Fin test: dispatchPending_shouldSkipOrder_whenCancelledBeforeAnySend\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldCancelReservationByKey_whenOrderCancelledAfterASend() {
+		log.info("Début test: dispatchPending_shouldCancelReservationByKey_whenOrderCancelledAfterASend");
+		order.setStatus(OrderStatus.CANCELLED);
+		event.setAttempts(1);
+
+		stockReservationSaga.dispatchPending();
+
+		verify(orderService, times(1)).abandonStockReservation(10L);
+		assertEquals(OutboxEventType.STOCK_RESERVATION_CANCEL, event.getEventType());
+		assertEquals(OutboxStatus.PENDING, event.getStatus());
+		assertEquals(0, event.getAttempts());
+
+		stockReservationSaga.dispatchPending();
+
+		verify(productClient, times(1)).cancelReservation(anyList(), eq("service-token"), eq(OPERATION_KEY));
+		verify(productClient, never()).reserveStock(anyList(), any(), any());
+		verify(orderService, times(1)).markStockReservationCancelled(10L);
+		assertEquals(OutboxStatus.DONE, event.getStatus());
+		log.info("Fin test: dispatchPending_shouldCancelReservationByKey_whenOrderCancelledAfterASend\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldCancelReservationByKey_whenAttemptsAreExhausted() {
+		log.info("Début test: dispatchPending_shouldCancelReservationByKey_whenAttemptsAreExhausted");
+		when(productClient.reserveStock(anyList(), any(), any())).thenThrow(new IllegalStateException("Délai dépassé"));
+		event.setAttempts(2);
+
+		stockReservationSaga.dispatchPending();
+
+		verify(orderService, times(1)).abandonStockReservation(10L);
+		verify(orderService, never()).rejectStockReservation(any());
+		assertEquals(OutboxEventType.STOCK_RESERVATION_CANCEL, event.getEventType());
+		assertEquals(OutboxStatus.PENDING, event.getStatus());
+		log.info("Fin test: dispatchPending_shouldCancelReservationByKey_whenAttemptsAreExhausted\n\n\n");
+	}
+
+	@Test
+	void dispatchPending_shouldMarkCancellationFailed_whenAttemptsAreExhausted() {
+		log.info("Début test: dispatchPending_shouldMarkCancellationFailed_whenAttemptsAreExhausted");
+		when(productClient.cancelReservation(anyList(), any(), any())).thenThrow(new IllegalStateException("Délai dépassé"));
+		event.setEventType(OutboxEventType.STOCK_RESERVATION_CANCEL);
+		event.setAttempts(2);
+
+		stockReservationSaga.dispatchPending();
+
+		verify(orderService, never()).markStockReservationCancelled(any());
+		assertEquals(OutboxStatus.FAILED, event.getStatus());
+		assertEquals(3, event.getAttempts());
+		assertEquals("Délai dépassé", event.getLastError());
+		log.info("Fin test: dispatchPending_shouldMarkCancellationFailed_whenAttemptsAreExhausted\n\n\n");
+	}
+
+	@Test
+	void redriveFailedCancellations_shouldRequeueOldFailuresAndExposeCancellingOrders() {
+		log.info("Début test: redriveFailedCancellations_shouldRequeueOldFailuresAndExposeCancellingOrders");
+		when(outboxEventRepository.redriveFailedCancellations(any(), any())).thenReturn(2);
+		when(orderRepository.countByStockStatus(StockReservationStatus.CANCELLING)).thenReturn(4L);
+		LocalDateTime before = LocalDateTime.now();
+
+		stockReservationSaga.redriveFailedCancellations();
+
+		verify(outboxEventRepository, times(1)).redriveFailedCancellations(any(),
+				argThat(failedBefore -> !failedBefore.isAfter(before.minusMinutes(29))));
+		assertEquals(2.0, meterRegistry.get("orders.outbox.cancel.redriven").counter().count());
+		assertEquals(4.0, meterRegistry.get("orders.stock.cancelling").gauge().value());
+		log.info("Fin test: redriveFailedCancellations_shouldRequeueOldFailuresAndExposeCancellingOrders\n\n\n");
+	}
+}
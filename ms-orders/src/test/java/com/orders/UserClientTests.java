@@ -0,0 +1,90 @@
+package com.orders;
+
+import com.orders.infrastructure.client.DownstreamResilience;
+import com.orders.infrastructure.client.UserClient;
+import com.orders.infrastructure.health.ExternalServiceChecker;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class UserClientTests {
+
+	private static final String USER_SERVICE_URL = "http://localhost:8081";
+
+	// Réponse de ms-membership par ID d'utilisateur
+	private static final Map<Long, HttpStatus> STATUSES = Map.of(
+			1L, HttpStatus.OK,
+			2L, HttpStatus.NOT_FOUND,
+			3L, HttpStatus.SERVICE_UNAVAILABLE);
+
+	private AtomicInteger calls;
+	private UserClient userClient;
+
+	@BeforeEach
+	void setUp() {
+		calls = new AtomicInteger();
+		WebClient webClient = WebClient.builder()
+				.exchangeFunction(request -> {
+					calls.incrementAndGet();
+					String path = request.url().getPath();
+					Long userId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+					return Mono.just(ClientResponse.create(STATUSES.get(userId)).build());
+				})
+				.build();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ExternalServiceChecker externalServiceChecker = new ExternalServiceChecker(webClient, "/actuator/health/liveness", Duration.ofSeconds(2), 5);
+		DownstreamResilience downstreamResilience = new DownstreamResilience(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), meterRegistry);
+		// Utilisateur existant gardé 10 minutes, utilisateur inconnu 200 ms
+		userClient = new UserClient(webClient, externalServiceChecker, downstreamResilience, meterRegistry,
+				USER_SERVICE_URL, Duration.ofMinutes(10), Duration.ofMillis(200), 100);
+	}
+
+	@Test
+	void isUserExist_shouldCacheExistingUserForPositiveTtl() throws InterruptedException {
+		log.info("Début test: isUserExist_shouldCacheExistingUserForPositiveTtl");
+		assertTrue(userClient.isUserExist(1L));
+		Thread.sleep(300);
+
+		assertTrue(userClient.isUserExist(1L));
+		assertEquals(1, calls.get());
+		log.info("Fin test: isUserExist_shouldCacheExistingUserForPositiveTtl\n\n\n");
+	}
+
+	@Test
+	void isUserExist_shouldCacheUnknownUserOnlyForNegativeTtl() throws InterruptedException {
+		log.info("Début test: isUserExist_shouldCacheUnknownUserOnlyForNegativeTtl");
+		assertFalse(userClient.isUserExist(2L));
+		assertFalse(userClient.isUserExist(2L));
+		assertEquals(1, calls.get());
+
+		Thread.sleep(300);
+
+		assertFalse(userClient.isUserExist(2L));
+		assertEquals(2, calls.get());
+		log.info("Fin test: isUserExist_shouldCacheUnknownUserOnlyForNegativeTtl\n\n\n");
+	}
+
+	@Test
+	void isUserExist_shouldNotCacheTechnicalErrors() {
+		log.info("Début test: isUserExist_shouldNotCacheTechnicalErrors");
+		assertFalse(userClient.isUserExist(3L));
+		assertFalse(userClient.isUserExist(3L));
+
+		assertEquals(2, calls.get());
+		log.info("Fin test: isUserExist_shouldNotCacheTechnicalErrors\n\n\n");
+	}
+}
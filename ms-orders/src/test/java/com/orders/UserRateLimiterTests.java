@@ -0,0 +1,75 @@
+package com.orders;
+
+import com.orders.infrastructure.exception.ErrorResponse;
+import com.orders.infrastructure.exception.GlobalExceptionHandler;
+import com.orders.infrastructure.exception.RateLimitExceededException;
+import com.orders.infrastructure.ratelimit.TokenBucket;
+import com.orders.infrastructure.ratelimit.UserRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class UserRateLimiterTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private UserRateLimiter userRateLimiter;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		// Un jeton toutes les 100 s sur "batch" : le refus suivant la rafale est déterministe
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("orders.rate-limit.endpoints.batch.permits-per-second", "0.01")
+				.withProperty("orders.rate-limit.endpoints.batch.burst", "2");
+		userRateLimiter = new UserRateLimiter(environment, meterRegistry, Duration.ofMinutes(10), 1000, 5, 10);
+	}
+
+	@Test
+	void tokenBucket_shouldAllowBurstThenRejectUntilRefill() {
+		log.info("Début test: tokenBucket_shouldAllowBurstThenRejectUntilRefill");
+		TokenBucket bucket = new TokenBucket(2, 3);
+		long now = System.nanoTime();
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(now));
+		}
+		long wait = bucket.tryAcquire(now);
+		assertEquals(Duration.ofMillis(500).toNanos(), wait);
+		assertEquals(0, bucket.tryAcquire(now + wait));
+		assertTrue(bucket.tryAcquire(now + wait) > 0);
+		log.info("Fin test: tokenBucket_shouldAllowBurstThenRejectUntilRefill\n\n\n");
+	}
+
+	@Test
+	void acquire_shouldAnswer429WithRetryAfterAndCountRejection_whenBurstIsExhausted() {
+		log.info("Début test: acquire_shouldAnswer429WithRetryAfterAndCountRejection_whenBurstIsExhausted");
+		userRateLimiter.acquire("batch", 1L);
+		userRateLimiter.acquire("batch", 1L);
+
+		RateLimitExceededException exception = assertThrows(RateLimitExceededException.class, () -> userRateLimiter.acquire("batch", 1L));
+		// Un autre utilisateur et un autre endpoint ont leur propre seau
+		assertDoesNotThrow(() -> userRateLimiter.acquire("batch", 2L));
+		assertDoesNotThrow(() -> userRateLimiter.acquire("create", 1L));
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders/batch");
+		ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleRateLimitExceededException(exception, request);
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		long retryAfter = Long.parseLong(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		assertTrue(retryAfter > 90 && retryAfter <= 100);
+		assertEquals(1.0, meterRegistry.get("orders.rate-limit.rejected").tag("endpoint", "batch").counter().count());
+		assertNull(meterRegistry.find("orders.rate-limit.rejected").tag("endpoint", "create").counter());
+		log.info("Fin test: acquire_shouldAnswer429WithRetryAfterAndCountRejection_whenBurstIsExhausted\n\n\n");
+	}
+}
@@ -0,0 +1,22 @@
+package com.products.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponseDTO {
+
+    @Builder.Default
+    private List<ProductResponseDTO> products = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> missingIds = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.products.application.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequestDTO {
+
+    @NotNull(message = "L'id du produit ne peut pas être vide")
+    private Long productId;
+
+    @NotNull(message = "La quantité ne peut pas être vide")
+    @Min(value = 1, message = "La quantité doit être supérieure ou égale à 1")
+    private Integer quantity;
+}
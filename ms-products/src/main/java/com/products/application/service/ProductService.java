@@ -1,11 +1,17 @@
 package com.products.application.service;
 
+import com.products.application.dto.ProductBatchResponseDTO;
 import com.products.application.dto.ProductRequestDTO;
 import com.products.application.dto.ProductResponseDTO;
+import com.products.application.dto.StockReservationRequestDTO;
 import com.products.application.mapper.ProductMapper;
 import com.products.domain.entity.Product;
 import com.products.domain.enums.Category;
+import com.products.domain.entity.StockOperation;
 import com.products.domain.repository.ProductRepository;
+import com.products.domain.repository.StockOperationRepository;
+import com.products.infrastructure.exception.IdempotencyKeyMismatchException;
+import com.products.infrastructure.exception.InsufficientStockException;
 import com.products.infrastructure.exception.ResourceNotFoundException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -14,7 +20,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,7 +38,13 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    private static final String RESERVE = "reserve";
+    private static final String RELEASE = "release";
+    private static final String CANCEL = "cancel";
+    private static final String CANCELLATION_SUFFIX = ":cancel";
+
     private final ProductRepository productRepository;
+    private final StockOperationRepository stockOperationRepository;
     private final ProductMapper productMapper;
     private final MeterRegistry meterRegistry;
 
@@ -50,6 +71,28 @@ public class ProductService {
         return productMapper.toDTO(product);
     }
 
+    public ProductBatchResponseDTO getProductsByIds(Collection<Long> ids) {
+        log.debug("Récupération des produits avec les ids: {}", ids);
+
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        List<Product> products = productRepository.findAllById(distinctIds);
+        Set<Long> foundIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        List<Long> missingIds = distinctIds.stream()
+                .filter(id -> !foundIds.contains(id))
+                .collect(Collectors.toList());
+
+        log.info("Nombre de produits récupérés: {}, manquants: {}", products.size(), missingIds.size());
+
+        return ProductBatchResponseDTO.builder()
+                .products(products.stream()
+                        .map(productMapper::toDTO)
+                        .collect(Collectors.toList()))
+                .missingIds(missingIds)
+                .build();
+    }
+
     @Transactional
     public ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO) {
         log.debug("Création du produit: {}", productRequestDTO.getName());
@@ -134,19 +177,175 @@ public class ProductService {
     public ProductResponseDTO updateProductStock(Long id, int quantity) {
         log.debug("Mise à jour du stock du produit avec l'id: {}", id);
 
-        Product product = productRepository.findById(id)
+        applyStockDelta(id, quantity);
+
+        Product updatedProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit", "id", id));
 
-        int newStock = product.getStock() + quantity;
-        if (newStock < 0) {
-            newStock = 0;
+        log.info("Produit mis à jour: {} - Nouveau stock: {}", updatedProduct.getName(), updatedProduct.getStock());
+
+        return productMapper.toDTO(updatedProduct);
+    }
+
+    /**
+     * Mise à jour conditionnelle du stock, sans lecture préalable de l'entité :
+     * un stock qui deviendrait négatif est refusé au lieu d'être ramené à 0.
+     */
+    private void applyStockDelta(Long id, int delta) {
+        if (productRepository.adjustStock(id, delta) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Produit", "id", id);
+            }
+            throw new InsufficientStockException(id, -delta);
         }
-        product.setStock(newStock);
+    }
 
-        Product updatedProduct = productRepository.save(product);
+    /**
+     * Réserve le stock de plusieurs produits dans une seule transaction : soit toutes les lignes
+     * sont décrémentées, soit aucune (rollback dès qu'une ligne ne peut pas être servie).
+     */
+    @Transactional
+    public List<ProductResponseDTO> reserveStock(List<StockReservationRequestDTO> reservations) {
+        return reserveStock(reservations, null);
+    }
 
-        log.info("Produit mis à jour: {} - Nouveau stock: {}", updatedProduct.getName(), updatedProduct.getStock());
+    /**
+     * Variante idempotente : une réservation déjà appliquée avec la même clé et le même contenu n'est pas rejouée,
+     * le stock courant des produits est simplement renvoyé ; une clé réutilisée pour un autre contenu est refusée.
+     * La clé est enregistrée dans la même transaction que les décréments ; deux appels simultanés avec la même clé
+     * se heurtent à la clé primaire.
+     */
+    @Transactional
+    public List<ProductResponseDTO> reserveStock(List<StockReservationRequestDTO> reservations, String operationKey) {
+        Map<Long, Integer> quantities = aggregate(reservations, "réservations");
+        log.debug("Réservation du stock pour {} lignes", reservations.size());
+
+        String payloadHash = payloadHash(RESERVE, quantities);
+        if (operationKey != null && alreadyApplied(operationKey, payloadHash)) {
+            log.info("Réservation {} déjà appliquée, aucun stock décrémenté", operationKey);
+        } else {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                applyStockDelta(entry.getKey(), -entry.getValue());
+            }
+            if (operationKey != null) {
+                recordOperation(operationKey, payloadHash);
+            }
+            log.info("Stock réservé pour les produits: {}", quantities.keySet());
+        }
+        return findProducts(quantities);
+    }
 
-        return productMapper.toDTO(updatedProduct);
+    /**
+     * Remet en vente le stock de commandes annulées, envoyé par lots agrégés par ms-orders. Même idempotence que
+     * la réservation : un lot déjà appliqué avec la même clé n'est pas rejoué. Un produit supprimé entre-temps est
+     * ignoré pour ne pas bloquer le reste du lot.
+     */
+    @Transactional
+    public List<ProductResponseDTO> releaseStock(List<StockReservationRequestDTO> releases, String operationKey) {
+        Map<Long, Integer> quantities = aggregate(releases, "remises en stock");
+        log.debug("Remise en stock de {} lignes", releases.size());
+
+        String payloadHash = payloadHash(RELEASE, quantities);
+        if (operationKey != null && alreadyApplied(operationKey, payloadHash)) {
+            log.info("Remise en stock {} déjà appliquée, aucun stock incrémenté", operationKey);
+        } else {
+            incrementStock(quantities);
+            if (operationKey != null) {
+                recordOperation(operationKey, payloadHash);
+            }
+            log.info("Stock remis en vente pour les produits: {}", quantities.keySet());
+        }
+        return findProducts(quantities);
+    }
+
+    /**
+     * Annule une réservation dont l'appelant ne connaît pas l'issue (réponse perdue, essais épuisés).
+     * Si la réservation a été appliquée, son stock est remis en vente ; sinon sa clé est enregistrée pour qu'une
+     * requête de réservation encore en transit ne s'applique plus. Idempotent par la clé {@code <clé>:cancel}.
+     */
+    @Transactional
+    public List<ProductResponseDTO> cancelReservation(String reservationKey, List<StockReservationRequestDTO> reservations) {
+        Map<Long, Integer> quantities = aggregate(reservations, "réservations");
+        String cancellationKey = reservationKey + CANCELLATION_SUFFIX;
+        String cancellationHash = payloadHash(CANCEL, quantities);
+
+        if (alreadyApplied(cancellationKey, cancellationHash)) {
+            log.info("Réservation {} déjà annulée", reservationKey);
+            return findProducts(quantities);
+        }
+        String reservationHash = payloadHash(RESERVE, quantities);
+        if (alreadyApplied(reservationKey, reservationHash)) {
+            incrementStock(quantities);
+            log.info("Réservation {} annulée, stock remis en vente pour les produits: {}", reservationKey, quantities.keySet());
+        } else {
+            recordOperation(reservationKey, reservationHash);
+            log.info("Réservation {} jamais appliquée, clé neutralisée", reservationKey);
+        }
+        recordOperation(cancellationKey, cancellationHash);
+        return findProducts(quantities);
+    }
+
+    /**
+     * Regroupe les lignes par produit, triées par id pour verrouiller les lignes toujours dans le même ordre.
+     */
+    private static Map<Long, Integer> aggregate(List<StockReservationRequestDTO> lines, String label) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("La liste des " + label + " ne peut pas être vide");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequestDTO line : lines) {
+            if (line.getProductId() == null || line.getQuantity() == null || line.getQuantity() < 1) {
+                throw new IllegalArgumentException("Chaque ligne doit avoir un produit et une quantité supérieure ou égale à 1");
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void incrementStock(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.adjustStock(entry.getKey(), entry.getValue()) == 0) {
+                log.warn("Produit {} introuvable, {} unités non remises en stock", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Vrai si l'opération a déjà été enregistrée avec le même contenu. Une clé connue avec une autre empreinte est
+     * refusée : renvoyer un succès sans rien appliquer ferait croire à l'appelant que son opération a eu lieu.
+     */
+    private boolean alreadyApplied(String operationKey, String payloadHash) {
+        return stockOperationRepository.findById(operationKey)
+                .map(operation -> {
+                    if (!operation.getPayloadHash().equals(payloadHash)) {
+                        throw new IdempotencyKeyMismatchException(operationKey);
+                    }
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private void recordOperation(String operationKey, String payloadHash) {
+        stockOperationRepository.saveAndFlush(StockOperation.builder()
+                .operationKey(operationKey)
+                .payloadHash(payloadHash)
+                .build());
+    }
+
+    static String payloadHash(String operation, Map<Long, Integer> quantities) {
+        StringBuilder canonical = new StringBuilder(operation);
+        quantities.forEach((productId, quantity) -> canonical.append('|').append(productId).append(':').append(quantity));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private List<ProductResponseDTO> findProducts(Map<Long, Integer> quantities) {
+        return productRepository.findAllById(quantities.keySet()).stream()
+                .map(productMapper::toDTO)
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,41 @@
+package com.products.domain.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'une opération de stock identifiée par une clé fournie par l'appelant.
+ * Enregistrée dans la transaction de l'opération : une opération rejouée avec la même clé n'est pas réappliquée.
+ * L'empreinte du contenu permet de refuser une clé réutilisée pour une opération différente.
+ */
+@Data
+@Entity
+@Table(name = "stock_operations")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperation {
+
+    @Id
+    @Size(max = 100)
+    @NotNull
+    @Column(name = "OPERATION_KEY", nullable = false, length = 100)
+    private String operationKey;
+
+    // SHA-256 du type d'opération et des quantités par produit
+    @NotNull
+    @Column(name = "PAYLOAD_HASH", nullable = false, length = 64)
+    private String payloadHash;
+
+    @CreationTimestamp
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
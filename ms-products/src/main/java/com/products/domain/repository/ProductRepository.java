@@ -4,6 +4,9 @@ import com.products.domain.entity.Product;
 import com.products.domain.enums.Category;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -16,4 +19,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStockGreaterThan(Integer stock);
 
     Long countByStockLessThan(Integer stock);
+
+    /**
+     * Applique un delta au stock en une seule requête, uniquement si le stock résultant reste positif.
+     * Retourne le nombre de lignes modifiées : 0 si le produit n'existe pas ou si le stock est insuffisant.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta WHERE p.id = :id AND p.stock + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
 }
@@ -0,0 +1,7 @@
+package com.products.domain.repository;
+
+import com.products.domain.entity.StockOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockOperationRepository extends JpaRepository<StockOperation, String> {
+}
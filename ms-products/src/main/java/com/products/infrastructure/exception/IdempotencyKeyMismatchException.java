@@ -0,0 +1,11 @@
+package com.products.infrastructure.exception;
+
+/**
+ * Exception levée lorsqu'une clé d'opération de stock déjà enregistrée est rejouée avec un contenu différent.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String operationKey) {
+        super(String.format("La clé d'opération '%s' a déjà été utilisée pour une opération de stock différente", operationKey));
+    }
+}
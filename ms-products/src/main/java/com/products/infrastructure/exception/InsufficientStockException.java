@@ -0,0 +1,15 @@
+package com.products.infrastructure.exception;
+
+/**
+ * Exception levée lorsque le stock d'un produit ne permet pas de servir la quantité demandée.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+
+    public InsufficientStockException(Long productId, int quantity) {
+        super(String.format("Stock insuffisant pour le produit %d, quantité demandée : %d", productId, quantity));
+    }
+}
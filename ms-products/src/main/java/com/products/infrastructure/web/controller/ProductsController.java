@@ -1,7 +1,9 @@
 package com.products.infrastructure.web.controller;
 
+import com.products.application.dto.ProductBatchResponseDTO;
 import com.products.application.dto.ProductRequestDTO;
 import com.products.application.dto.ProductResponseDTO;
+import com.products.application.dto.StockReservationRequestDTO;
 import com.products.application.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -46,6 +48,25 @@ public class ProductsController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @Operation(summary = "Récupérer plusieurs produits",
+            description = "Retourne en un seul appel les produits correspondant aux IDs fournis, ainsi que les IDs introuvables")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Produits récupérés",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductBatchResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Liste d'IDs invalide",
+                    content = @Content)
+    })
+    @GetMapping(params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductBatchResponseDTO> getProductsByIds(
+            @Parameter(description = "IDs des produits séparés par des virgules", required = true)
+            @RequestParam List<Long> ids) {
+
+        log.info("GET /api/v1/products?ids={} - Récupération de plusieurs produits", ids);
+
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
     @Operation(summary = "Récupérer un produit",
             description = "Retourne un produit spécifique basé sur son ID")
     @ApiResponses(value = {
@@ -206,7 +227,7 @@ public class ProductsController {
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Produit non trouvé",
                     content = @Content),
-            @ApiResponse(responseCode = "409", description = "Conflit avec un produit existant",
+            @ApiResponse(responseCode = "409", description = "Stock insuffisant",
                     content = @Content)
     })
     @PatchMapping(value = "/{id}/stock", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -218,4 +239,67 @@ public class ProductsController {
         log.info("PATCH /api/v1/products/{}/stock - Mise à jour de stock du produit", id);
         return ResponseEntity.ok(productService.updateProductStock(id, quantityBody.get("quantity")));
     }
+
+    @Operation(summary = "Réserver le stock de plusieurs produits",
+            description = "Décrémente le stock de toutes les lignes dans une seule transaction : tout ou rien")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock réservé",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Données invalides",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Produit non trouvé",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Stock insuffisant, aucune ligne réservée",
+                    content = @Content)
+    })
+    @PostMapping(value = "/stock/reservations", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductResponseDTO>> reserveStock(
+            @Parameter(description = "Lignes à réserver", required = true)
+            @RequestBody List<StockReservationRequestDTO> reservations,
+            @Parameter(description = "Clé rendant la réservation idempotente (rejouer la même clé ne décrémente pas deux fois)")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("POST /api/v1/products/stock/reservations - Réservation du stock de {} lignes (clé: {})", reservations.size(), idempotencyKey);
+        return ResponseEntity.ok(productService.reserveStock(reservations, idempotencyKey));
+    }
+
+    @Operation(summary = "Remettre en stock plusieurs produits",
+            description = "Incrémente le stock de toutes les lignes dans une seule transaction, utilisé pour les commandes annulées")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock remis en vente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Données invalides",
+                    content = @Content)
+    })
+    @PostMapping(value = "/stock/releases", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductResponseDTO>> releaseStock(
+            @Parameter(description = "Lignes à remettre en stock", required = true)
+            @RequestBody List<StockReservationRequestDTO> releases,
+            @Parameter(description = "Clé rendant la remise en stock idempotente (rejouer la même clé n'incrémente pas deux fois)")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("POST /api/v1/products/stock/releases - Remise en stock de {} lignes (clé: {})", releases.size(), idempotencyKey);
+        return ResponseEntity.ok(productService.releaseStock(releases, idempotencyKey));
+    }
+
+    @Operation(summary = "Annuler une réservation de stock",
+            description = "Remet en vente le stock d'une réservation appliquée ; si elle ne l'a jamais été, sa clé est neutralisée pour qu'elle ne s'applique plus")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Réservation annulée",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProductResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Données invalides",
+                    content = @Content),
+            @ApiResponse(responseCode = "422", description = "Clé déjà utilisée pour une autre réservation",
+                    content = @Content)
+    })
+    @PostMapping(value = "/stock/reservations/{reservationKey}/cancellation", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductResponseDTO>> cancelReservation(
+            @Parameter(description = "Clé d'idempotence de la réservation à annuler", required = true)
+            @PathVariable String reservationKey,
+            @Parameter(description = "Lignes de la réservation", required = true)
+            @RequestBody List<StockReservationRequestDTO> reservations) {
+        log.info("POST /api/v1/products/stock/reservations/{}/cancellation - Annulation de la réservation", reservationKey);
+        return ResponseEntity.ok(productService.cancelReservation(reservationKey, reservations));
+    }
 }
@@ -22,3 +22,10 @@ INSERT INTO products (name, description, price, stock, category, active, created
      ('Sac à Dos', 'Sac à dos résistant avec plusieurs compartiments pour ordinateur et livres.', 49.90, 20, 'OTHER', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
      ('Casque Audio', 'Casque audio Bluetooth avec réduction de bruit active et longue autonomie.', 89.99, 15, 'ELECTRONICS', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
      ('Chocolats Assortis', 'Boîte de chocolats fins assortis pour toutes les occasions.', 24.99, 60, 'FOOD', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+-- Clés des opérations de stock déjà appliquées (réservations rejouées par ms-orders), avec l'empreinte de leur contenu
+CREATE TABLE stock_operations (
+    operation_key VARCHAR(100) NOT NULL PRIMARY KEY,
+    payload_hash VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
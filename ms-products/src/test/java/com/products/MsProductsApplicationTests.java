@@ -1,12 +1,18 @@
 package com.products;
 
+import com.products.application.dto.ProductBatchResponseDTO;
 import com.products.application.dto.ProductRequestDTO;
 import com.products.application.dto.ProductResponseDTO;
+import com.products.application.dto.StockReservationRequestDTO;
 import com.products.application.mapper.ProductMapper;
 import com.products.application.service.ProductService;
 import com.products.domain.entity.Product;
+import com.products.domain.entity.StockOperation;
 import com.products.domain.enums.Category;
 import com.products.domain.repository.ProductRepository;
+import com.products.domain.repository.StockOperationRepository;
+import com.products.infrastructure.exception.IdempotencyKeyMismatchException;
+import com.products.infrastructure.exception.InsufficientStockException;
 import com.products.infrastructure.exception.ResourceNotFoundException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -17,7 +23,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +44,9 @@ public class MsProductsApplicationTests {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private StockOperationRepository stockOperationRepository;
+
     @Mock
     private MeterRegistry meterRegistry;
     @Mock
@@ -134,17 +145,31 @@ public class MsProductsApplicationTests {
     void updateProductStock_shouldUpdateStock() {
         log.info("Début test: updateProductStock_shouldUpdateStock");
 
+        when(productRepository.adjustStock(1L, 5)).thenReturn(1);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(product)).thenReturn(product);
         when(productMapper.toDTO(product)).thenReturn(productResponseDTO);
 
         ProductResponseDTO response = productService.updateProductStock(1L, 5);
 
-        assertEquals(15, product.getStock());
+        assertNotNull(response);
+        verify(productRepository, times(1)).adjustStock(1L, 5);
+        verify(productRepository, never()).save(any());
 
         log.info("Fin test: updateProductStock_shouldUpdateStock");
     }
 
+    @Test
+    void updateProductStock_shouldThrowConflict_whenStockInsufficient() {
+        log.info("Début test: updateProductStock_shouldThrowConflict_whenStockInsufficient");
+
+        when(productRepository.adjustStock(1L, -20)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class, () -> productService.updateProductStock(1L, -20));
+
+        log.info("Fin test: updateProductStock_shouldThrowConflict_whenStockInsufficient");
+    }
+
     @Test
     void deleteProduct_shouldDeleteProduct_whenFound() {
         log.info("Début test: deleteProduct_shouldDeleteProduct_whenFound");
@@ -172,6 +197,147 @@ public class MsProductsApplicationTests {
         log.info("Fin test: getProductsByCategory_shouldReturnProducts");
     }
 
+    @Test
+    void getProductsByIds_shouldReturnProductsAndMissingIds() {
+        log.info("Début test: getProductsByIds_shouldReturnProductsAndMissingIds");
+
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product));
+        when(productMapper.toDTO(product)).thenReturn(productResponseDTO);
+
+        ProductBatchResponseDTO response = productService.getProductsByIds(List.of(1L, 2L, 1L));
+
+        assertEquals(1, response.getProducts().size());
+        assertEquals(List.of(2L), response.getMissingIds());
+        verify(productRepository, times(1)).findAllById(anyIterable());
+
+        log.info("Fin test: getProductsByIds_shouldReturnProductsAndMissingIds");
+    }
+
+    @Test
+    void reserveStock_shouldFailWholeBatch_whenOneLineIsShort() {
+        log.info("Début test: reserveStock_shouldFailWholeBatch_whenOneLineIsShort");
+
+        when(productRepository.adjustStock(1L, -2)).thenReturn(1);
+        when(productRepository.adjustStock(2L, -50)).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        List<StockReservationRequestDTO> reservations = List.of(
+                new StockReservationRequestDTO(1L, 2),
+                new StockReservationRequestDTO(2L, 50));
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(reservations));
+        verify(productRepository, never()).findAllById(anyIterable());
+
+        log.info("Fin test: reserveStock_shouldFailWholeBatch_whenOneLineIsShort");
+    }
+
+    /**
+     * Enregistre la clé au premier appel et renvoie l'opération enregistrée aux appels suivants.
+     */
+    private void recordStockOperations() {
+        Map<String, StockOperation> operations = new HashMap<>();
+        when(stockOperationRepository.saveAndFlush(any(StockOperation.class))).thenAnswer(invocation -> {
+            StockOperation operation = invocation.getArgument(0);
+            operations.put(operation.getOperationKey(), operation);
+            return operation;
+        });
+        when(stockOperationRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(operations.get(invocation.<String>getArgument(0))));
+    }
+
+    @Test
+    void reserveStock_shouldNotApplyTwice_whenKeyAlreadyUsed() {
+        log.info("Début test: reserveStock_shouldNotApplyTwice_whenKeyAlreadyUsed");
+
+        recordStockOperations();
+        when(productRepository.adjustStock(1L, -2)).thenReturn(1);
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product));
+        when(productMapper.toDTO(product)).thenReturn(productResponseDTO);
+
+        productService.reserveStock(List.of(new StockReservationRequestDTO(1L, 2)), "reservation-42");
+        List<ProductResponseDTO> result = productService.reserveStock(List.of(new StockReservationRequestDTO(1L, 2)), "reservation-42");
+
+        assertEquals(1, result.size());
+        verify(productRepository, times(1)).adjustStock(1L, -2);
+        verify(stockOperationRepository, times(1)).saveAndFlush(any());
+
+        log.info("Fin test: reserveStock_shouldNotApplyTwice_whenKeyAlreadyUsed");
+    }
+
+    @Test
+    void reserveStock_shouldRejectReplay_whenPayloadDiffers() {
+        log.info("Début test: reserveStock_shouldRejectReplay_whenPayloadDiffers");
+
+        recordStockOperations();
+        when(productRepository.adjustStock(1L, -2)).thenReturn(1);
+
+        productService.reserveStock(List.of(new StockReservationRequestDTO(1L, 2)), "reservation-42");
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> productService.reserveStock(List.of(new StockReservationRequestDTO(1L, 3)), "reservation-42"));
+        // Une remise en stock ne peut pas réutiliser la clé d'une réservation
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> productService.releaseStock(List.of(new StockReservationRequestDTO(1L, 2)), "reservation-42"));
+        verify(productRepository, never()).adjustStock(1L, -3);
+        verify(productRepository, never()).adjustStock(1L, 2);
+
+        log.info("Fin test: reserveStock_shouldRejectReplay_whenPayloadDiffers");
+    }
+
+    @Test
+    void releaseStock_shouldIncrementOnceAndRecordKey() {
+        log.info("Début test: releaseStock_shouldIncrementOnceAndRecordKey");
+
+        recordStockOperations();
+        when(productRepository.adjustStock(1L, 5)).thenReturn(1);
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product));
+        when(productMapper.toDTO(product)).thenReturn(productResponseDTO);
+
+        List<StockReservationRequestDTO> releases = List.of(new StockReservationRequestDTO(1L, 2), new StockReservationRequestDTO(1L, 3));
+        productService.releaseStock(releases, "stock-release-7");
+        productService.releaseStock(releases, "stock-release-7");
+
+        verify(productRepository, times(1)).adjustStock(1L, 5);
+        verify(stockOperationRepository, times(1)).saveAndFlush(any());
+
+        log.info("Fin test: releaseStock_shouldIncrementOnceAndRecordKey");
+    }
+
+    @Test
+    void cancelReservation_shouldReleaseStock_whenReservationWasApplied() {
+        log.info("Début test: cancelReservation_shouldReleaseStock_whenReservationWasApplied");
+
+        recordStockOperations();
+        when(productRepository.adjustStock(1L, -2)).thenReturn(1);
+        when(productRepository.adjustStock(1L, 2)).thenReturn(1);
+        List<StockReservationRequestDTO> reservations = List.of(new StockReservationRequestDTO(1L, 2));
+
+        productService.reserveStock(reservations, "reservation-42");
+        productService.cancelReservation("reservation-42", reservations);
+        productService.cancelReservation("reservation-42", reservations);
+
+        verify(productRepository, times(1)).adjustStock(1L, 2);
+
+        log.info("Fin test: cancelReservation_shouldReleaseStock_whenReservationWasApplied");
+    }
+
+    @Test
+    void cancelReservation_shouldBlockLateReservation_whenReservationWasNeverApplied() {
+        log.info("Début test: cancelReservation_shouldBlockLateReservation_whenReservationWasNeverApplied");
+
+        recordStockOperations();
+        List<StockReservationRequestDTO> reservations = List.of(new StockReservationRequestDTO(1L, 2));
+
+        productService.cancelReservation("reservation-42", reservations);
+        // La requête de réservation arrivée après l'annulation ne décrémente plus le stock
+        productService.reserveStock(reservations, "reservation-42");
+
+        verify(productRepository, never()).adjustStock(anyLong(), anyInt());
+        verify(stockOperationRepository, times(2)).saveAndFlush(any());
+
+        log.info("Fin test: cancelReservation_shouldBlockLateReservation_whenReservationWasNeverApplied");
+    }
+
     @Test
     void getProductById_shouldThrowException_whenNotFound() {
         log.info("Début test: getProductById_shouldThrowException_whenNotFound");